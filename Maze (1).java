@@ -1,11 +1,64 @@
 import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.Random;
-import java.util.Stack;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 
 import javalib.impworld.World;
 import javalib.impworld.WorldScene;
@@ -18,46 +71,68 @@ import tester.Tester;
 // INSTRUCTIONS:
 // Search: If you would like to see the search, press "b" to see breadth-first search,
 //  and press "d" to see depth-first search.
+//  Press "a" to see A* search, and "m" to see a search from both ends that meets in the middle.
+//  Press "p" to pause or resume the search, and "escape" to cancel it.
 // Solution: If you would like to see the solution, press "enter"
+//  Without a finished search, "enter" shows the way from where you are to the end
+// Heatmap: press "f" to colour every cell by its distance from the end
+// Hint: press "n" to light up your next step toward the end
+// Paths: click any cell to see the path to it from where you are
 // Edge bias:
 //  If you would like the maze to be horizontally biased, press "h"
 //  If you would like the maze to be vertically biased, press "v"
+// Generator: press "g" to make the next maze with the next generator: Kruskal, Boruvka,
+//  recursive backtracker, Prim or Wilson
 // Reset: If you would like to reset with a new random maze, press "r"
 // Traversing: Use up, left, right, and down arrows to traverse the maze.
 //  If the end is reached, the user has completed the maze
 // Clear: If you want to clear the maze without making a new random one,
 //  press backspace
 
-// comparator to compare edge weights
-class CompareEdgeWeights implements Comparator<Edge> {
-  public int compare(Edge e1, Edge e2) {
-    return Integer.compare(e1.weight, e2.weight);
-  }
-}
-
 // Cell represents each cell in the grid and each pair of cells has a Wall dividing them
+// the walls themselves are stored in the MazeGrid, the cell only looks them up
 class Cell {
   static int SCALE = 10;
+  MazeWalls grid;
+  // told about every color change so the cell gets redrawn
+  SceneCache scene;
   int x;
   int y;
-  boolean top;
-  boolean right;
-  boolean left;
-  boolean bottom;
-  ArrayList<Edge> outEdges; // edges from this node
   Color color;
 
-  Cell(int x, int y) {
+  Cell(MazeWalls grid, SceneCache scene, int x, int y) {
+    this.grid = grid;
+    this.scene = scene;
     this.x = x;
     this.y = y;
-    this.outEdges = new ArrayList<Edge>();
-    this.top = true;
-    this.right = true;
-    this.left = true;
-    this.bottom = true;
     this.color = Color.white;
   }
 
+  // gets this cell's number in the grid
+  int id() {
+    return this.grid.id(this.x, this.y);
+  }
+
+  // is there a wall above this cell?
+  boolean top() {
+    return this.grid.hasWall(this.id(), MazeGrid.TOP);
+  }
+
+  // is there a wall to the right of this cell?
+  boolean right() {
+    return this.grid.hasWall(this.id(), MazeGrid.RIGHT);
+  }
+
+  // is there a wall below this cell?
+  boolean bottom() {
+    return this.grid.hasWall(this.id(), MazeGrid.BOTTOM);
+  }
+
+  // is there a wall to the left of this cell?
+  boolean left() {
+    return this.grid.hasWall(this.id(), MazeGrid.LEFT);
+  }
+
   // draws an image of a cell with lines
   WorldImage drawCell(Color color) {
     return new RectangleImage(SCALE, SCALE, "solid", color);
@@ -75,12 +150,16 @@ class Cell {
 
   // changes this cell's color to blue
   void changeColor(Color givenColor) {
-    this.color = givenColor;
+    if (!givenColor.equals(this.color)) {
+      this.color = givenColor;
+      this.scene.markDirty(this.x, this.y);
+    }
   }
 }
 
 // Edge represents a connection between two cells; if an edge is made, a wall must be removed
 // given a random weight (worry about getting the image later)
+// edges are stored by number in MazeWorld, an Edge is only made when one is asked for
 class Edge {
   Cell from;
   Cell to;
@@ -98,450 +177,5927 @@ class Edge {
   }
 }
 
-// represents a random maze
-class MazeWorld extends World {
-  // if maze is smaller than 50 x 50, scale is 20
-  static int SCALE = 10;
-  int length;
-  int height;
-  Random rand;
-  ArrayList<ArrayList<Cell>> board;
-  ArrayList<Edge> edges;
-  ArrayList<Edge> mst;
-  ArrayList<Cell> visitedBFS;
-  ArrayList<Cell> visitedDFS;
-  // true if b is pressed
-  boolean breadthFirst;
-  // true if d is pressed
-  boolean depthFirst;
-  // true if breadth or depth first are running
-  boolean searching;
-  // true if search is done
-  boolean end;
-  // keeps track of ticks
-  int tick;
-  HashMap<Cell, Cell> cameFromCells;
-  // true if done back tracking
-  boolean doneBackTracking;
-  // current traversing cell's x value
-  int curX;
-  // current traversing cell's y value
-  int curY;
-  // true if h is pressed
-  boolean preferHorizontal;
-  // true if v is pressed
-  boolean preferVertical;
-  // true if BFS is done
-  boolean doneBFS;
-  // true if DFS is done
-  boolean doneDFS;
-  // true if user finishes maze
-  boolean completed;
+// MazeWalls answers questions about the walls of a maze whose cells are numbered
+// row * length + col
+interface MazeWalls {
+  // gets the number of columns
+  int length();
 
-  MazeWorld(int length, int height) {
-    this(length, height, new Random());
+  // gets the number of rows
+  int height();
+
+  // is the given side of the given cell walled off?
+  boolean hasWall(int cell, byte side);
+
+  // gets the number of cells
+  default int cells() {
+    return this.length() * this.height();
   }
 
-  // seeded random for testing
-  MazeWorld(int length, int height, Random rand) {
-    this.length = length;
-    this.height = height;
-    this.rand = rand;
-    this.board = new ArrayList<ArrayList<Cell>>();
-    for (int row = 0; row < height; row = row + 1) {
-      board.add(new ArrayList<Cell>());
-      for (int column = 0; column < length; column = column + 1) {
-        board.get(row).add(new Cell(column, row));
-      }
+  // gets the number of the cell in the given column and row
+  default int id(int col, int row) {
+    return row * this.length() + col;
+  }
+
+  // gets the cell the given edge goes to (the lower or right one)
+  default int to(int edge) {
+    if (MazeGrid.isHorizontal(edge)) {
+      return (edge >> 1) + 1;
     }
-    this.edges = new ArrayList<Edge>();
-    this.addEdges();
-    this.mst = this.kruskal();
-    // if false, don't draw edge
-    for (Edge e : this.mst) {
-      if (e.isHorizontal()) {
-        e.from.right = false;
-        e.to.left = false;
-      }
-      else {
-        e.from.bottom = false;
-        e.to.top = false;
-      }
+    else {
+      return (edge >> 1) + this.length();
     }
-    this.visitedBFS = new ArrayList<Cell>();
-    this.visitedDFS = new ArrayList<Cell>();
-    this.breadthFirst = false;
-    this.depthFirst = false;
-    this.searching = false;
-    this.end = false;
-    this.tick = 0;
-    this.cameFromCells = new HashMap<Cell, Cell>();
-    this.doneBackTracking = false;
-    this.curX = 0;
-    this.curY = 0;
-    this.preferHorizontal = false;
-    this.preferVertical = false;
-    this.doneBFS = false;
-    this.doneDFS = false;
-    this.completed = false;
   }
 
-  // adds edges to this array list of edges
-  public void addEdges() {
-    for (int row = 0; row < height; row = row + 1) {
-      for (int col = 0; col < length; col = col + 1) {
-        int edgeWeight = this.rand.nextInt(100000);
-        if (col < length - 1) {
-          if (this.preferHorizontal) {
-            Edge edge = new Edge(board.get(row).get(col), board.get(row).get(col + 1),
-                edgeWeight - 100000);
-            edges.add(edge);
-          }
-          else {
-            Edge edge = new Edge(board.get(row).get(col), board.get(row).get(col + 1), edgeWeight);
-            edges.add(edge);
-          }
+  // puts the cells reachable from the given cell into the given array, in the order
+  // up, left, right, down, and returns how many there are
+  default int openNeighbors(int cell, int[] into) {
+    int count = 0;
+    if (!this.hasWall(cell, MazeGrid.TOP)) {
+      into[count] = cell - this.length();
+      count = count + 1;
+    }
+    if (!this.hasWall(cell, MazeGrid.LEFT)) {
+      into[count] = cell - 1;
+      count = count + 1;
+    }
+    if (!this.hasWall(cell, MazeGrid.RIGHT)) {
+      into[count] = cell + 1;
+      count = count + 1;
+    }
+    if (!this.hasWall(cell, MazeGrid.BOTTOM)) {
+      into[count] = cell + this.length();
+      count = count + 1;
+    }
+    return count;
+  }
+
+  // hands the right and bottom walls of every row to the given sink, top to bottom
+  default void emitRows(RowSink sink) throws IOException {
+    byte[] row = new byte[this.length()];
+    for (int r = 0; r < this.height(); r = r + 1) {
+      for (int col = 0; col < this.length(); col = col + 1) {
+        int cell = this.id(col, r);
+        row[col] = 0;
+        if (this.hasWall(cell, MazeGrid.RIGHT)) {
+          row[col] = (byte) (row[col] | MazeGrid.RIGHT);
         }
-        if (row < height - 1) {
-          if (this.preferVertical) {
-            Edge edge = new Edge(board.get(row).get(col), board.get(row + 1).get(col),
-                edgeWeight - 100000);
-            edges.add(edge);
-          }
-          else {
-            Edge edge = new Edge(board.get(row).get(col), board.get(row + 1).get(col), edgeWeight);
-            edges.add(edge);
-          }
+        if (this.hasWall(cell, MazeGrid.BOTTOM)) {
+          row[col] = (byte) (row[col] | MazeGrid.BOTTOM);
         }
       }
+      sink.acceptRow(r, row);
     }
   }
+}
+
+// MazeGrid stores the walls of a maze as one byte per cell
+// cells are numbered row * length + col, and the edge going right from a cell is
+// numbered 2 * cell while the edge going down from it is numbered 2 * cell + 1
+class MazeGrid implements MazeWalls {
+  static final byte TOP = 1;
+  static final byte RIGHT = 2;
+  static final byte BOTTOM = 4;
+  static final byte LEFT = 8;
+  static final byte ALL = 15;
+  int length;
+  int height;
+  byte[] walls;
+
+  MazeGrid(int length, int height) {
+    this.length = length;
+    this.height = height;
+    this.walls = new byte[length * height];
+    this.closeAll();
+  }
 
-  // renders the board
-  public WorldScene makeScene() {
-    WorldScene background = new WorldScene(length * SCALE, height * SCALE);
-    if (this.completed) {
-      return lastScene("Maze is complete!");
+  public int length() {
+    return this.length;
+  }
+
+  public int height() {
+    return this.height;
+  }
+
+  public int cells() {
+    return this.walls.length;
+  }
+
+  public int id(int col, int row) {
+    return row * this.length + col;
+  }
+
+  public boolean hasWall(int cell, byte side) {
+    return (this.walls[cell] & side) != 0;
+  }
+
+  // puts every wall back up
+  void closeAll() {
+    Arrays.fill(this.walls, ALL);
+  }
+
+  // takes down the wall that the given edge crosses
+  void open(int edge) {
+    int from = edge >> 1;
+    if (isHorizontal(edge)) {
+      this.walls[from] = (byte) (this.walls[from] & ~RIGHT);
+      this.walls[from + 1] = (byte) (this.walls[from + 1] & ~LEFT);
     }
-    for (ArrayList<Cell> row : board) {
-      for (Cell cell : row) {
-        if (cell.equals(this.board.get(0).get(0))) {
-          cell.changeColor(Color.green);
-        }
-        if (cell.equals(this.board.get(height - 1).get(length - 1))) {
-          cell.changeColor(Color.magenta);
-        }
-        background.placeImageXY(cell.drawCell(cell.color), cell.cellX(), cell.cellY());
-        if (cell.top) {
-          background.placeImageXY(new LineImage(new Posn(SCALE, 0), Color.black), cell.cellX(),
-              cell.cellY() - SCALE / 2);
-        }
-        if (cell.left) {
-          background.placeImageXY(new LineImage(new Posn(0, SCALE), Color.black),
-              cell.cellX() - SCALE / 2, cell.cellY());
-        }
-      }
+    else {
+      this.walls[from] = (byte) (this.walls[from] & ~BOTTOM);
+      this.walls[from + this.length] = (byte) (this.walls[from + this.length] & ~TOP);
     }
-    return background;
   }
 
-  public WorldScene lastScene(String msg) {
-    WorldScene endImage = new WorldScene(1000, 700);
-    endImage.placeImageXY(new TextImage(msg, 20, Color.black), 500, 350);
-    endImage.placeImageXY(new TextImage("Click 'r' to reset", 15, Color.red), 500, 400);
-    endImage.placeImageXY(new TextImage("Click 'backspace' to clear", 15, Color.black), 500, 430);
-    return endImage;
+  // gets the cell the given edge starts from (the upper or left one)
+  static int from(int edge) {
+    return edge >> 1;
   }
 
-  // gets minimum spanning tree
-  // and adds edges to cell's outEdges
-  public ArrayList<Edge> kruskal() {
-    // If two vertices have the same integer, they are connected
-    // check if any other cell's value is connected to the stored local value and
-    // change it to the new value as well
-    HashMap<Cell, Integer> representatives = new HashMap<Cell, Integer>();
-    ArrayList<Edge> mst = new ArrayList<Edge>();
-    Collections.sort(this.edges, new CompareEdgeWeights());
-    int val = 0;
-    for (int row = 0; row < height; row = row + 1) {
-      for (int col = 0; col < length; col = col + 1) {
-        representatives.put(this.board.get(row).get(col), val);
-        val = val + 1;
-      }
+  // gets the number of the edge between two neighbouring cells
+  int edgeBetween(int cell, int other) {
+    int from = Math.min(cell, other);
+    if (Math.abs(cell - other) == this.length) {
+      return 2 * from + 1;
     }
-    int cellsVisitedCount = 0;
-    while (cellsVisitedCount < height * length - 1) {
-      for (Edge e : this.edges) {
-        if (representatives.get(e.from) == representatives.get(e.to)) {
-          // do nothing
-        }
-        else {
-          // store old value
-          int oldValue = representatives.get(e.to);
-          mst.add(e);
-          e.from.outEdges.add(e);
-          e.to.outEdges.add(e);
-          representatives.put(e.to, representatives.get(e.from));
-          cellsVisitedCount = cellsVisitedCount + 1;
-          for (Cell cell : representatives.keySet()) {
-            if (representatives.get(cell) == oldValue) {
-              representatives.put(cell, representatives.get(e.from));
-            }
-          }
-        }
-      }
+    else {
+      return 2 * from;
     }
-    return mst;
   }
 
-  // searches cells using breadth-first search
-  public boolean breadthFirst() {
-    HashMap<Cell, Cell> cameFromCell = new HashMap<Cell, Cell>();
-    LinkedList<Cell> worklist = new LinkedList<Cell>();
-    worklist.add(this.board.get(0).get(0));
-    while (!worklist.isEmpty()) {
-      Cell next = worklist.remove();
-      visitedBFS.add(next);
-      if (next.equals(this.board.get(height - 1).get(length - 1))) {
-        this.cameFromCells = cameFromCell;
-        this.doneBFS = true;
-        return true;
+  // determines if the given edge is horizontal
+  static boolean isHorizontal(int edge) {
+    return (edge & 1) == 0;
+  }
+
+  // sets the walls of the given row from the right and bottom walls given for it,
+  // taking the top and left walls from the row above and the cell to the left
+  // rows have to be set from the top down
+  void setRow(int row, byte[] rightBottom) {
+    for (int col = 0; col < this.length; col = col + 1) {
+      int cell = this.id(col, row);
+      int w = rightBottom[col] & (RIGHT | BOTTOM);
+      if (col == this.length - 1) {
+        w = w | RIGHT;
       }
-      for (Edge e : next.outEdges) {
-        if ((e.from.equals(next)) && !(visitedBFS.contains(e.to))) {
-          worklist.add(e.to);
-          cameFromCell.put(e.to, next);
-        }
-        else if ((e.to.equals(next)) && !(visitedBFS.contains(e.from))) {
-          worklist.add(e.from);
-          cameFromCell.put(e.from, next);
-        }
+      if (row == this.height - 1) {
+        w = w | BOTTOM;
+      }
+      if (row == 0 || this.hasWall(cell - this.length, BOTTOM)) {
+        w = w | TOP;
       }
+      if (col == 0 || (rightBottom[col - 1] & RIGHT) != 0) {
+        w = w | LEFT;
+      }
+      this.walls[cell] = (byte) w;
     }
-    return false;
   }
 
-  // searches cells using depth-first search
-  public boolean depthFirst() {
-    HashMap<Cell, Cell> cameFromCell = new HashMap<Cell, Cell>();
-    Stack<Cell> worklist = new Stack<Cell>();
-    worklist.add(this.board.get(0).get(0));
-    while (!worklist.isEmpty()) {
-      Cell next = worklist.pop();
-      visitedDFS.add(next);
-      if (next.equals(this.board.get(height - 1).get(length - 1))) {
-        this.cameFromCells = cameFromCell;
-        this.doneDFS = true;
-        return true;
-      }
-      for (Edge e : next.outEdges) {
-        if ((e.from.equals(next)) && !(visitedDFS.contains(e.to))) {
-          worklist.push(e.to);
-          cameFromCell.put(e.to, next);
-        }
-        else if ((e.to.equals(next)) && !(visitedDFS.contains(e.from))) {
-          worklist.push(e.from);
-          cameFromCell.put(e.from, next);
-        }
-      }
+  // reads the wall byte once instead of asking for each side
+  public int openNeighbors(int cell, int[] into) {
+    int count = 0;
+    byte w = this.walls[cell];
+    if ((w & TOP) == 0) {
+      into[count] = cell - this.length;
+      count = count + 1;
     }
-    return false;
+    if ((w & LEFT) == 0) {
+      into[count] = cell - 1;
+      count = count + 1;
+    }
+    if ((w & RIGHT) == 0) {
+      into[count] = cell + 1;
+      count = count + 1;
+    }
+    if ((w & BOTTOM) == 0) {
+      into[count] = cell + this.length;
+      count = count + 1;
+    }
+    return count;
   }
+}
 
-  // if the b key is pressed, run breadth-first search
-  // if the d key is pressed, run depth-first search
-  // if the r key is pressed, reset with new random maze
-  // if the h key is pressed, reset with a horizontally-biased maze
-  // if the v key is pressed, reset with a vertically-biased maze
-  // if the backspace key is pressed, clear the maze
-  // if the enter key is pressed, reset the board and show the correct path
-  // user can traverse the maze with the arrow keys
-  public void onKeyEvent(String key) {
-    // b / breadth first
-    if (key.equals("b")) {
-      this.searching = true;
-      this.breadthFirst = true;
+// MazeGenerator makes a maze on a MazeGrid by taking down the walls along a spanning tree
+// of its cells
+// a horizontal or vertical bias makes the maze favour passages running that way
+interface MazeGenerator {
+  // names of the generators, as MazeBatch and the g key take them
+  static final String[] NAMES = new String[] { "kruskal", "boruvka", "backtracker", "prim",
+      "wilson" };
+
+  // gets the name of this generator
+  String name();
+
+  // makes a maze on the given grid, which should have all its walls up
+  // returns the numbers of the edges in the spanning tree
+  int[] generate(MazeGrid grid, Random rand, boolean preferHorizontal, boolean preferVertical);
+
+  // estimates how many bytes of working memory the last generate held at once, counting the
+  // tree it returned but not the grid
+  // the estimate adds up the sizes of the arrays the generator holds; it isn't measured
+  long workingSetBytes();
+
+  // gets a new generator with the given name for a grid with the given number of cells
+  // kruskal gives way to boruvka on grids big enough to generate in parallel
+  static MazeGenerator named(String name, int cells) {
+    if (name.equals("kruskal")) {
+      return KruskalGenerator.forCells(cells);
     }
-    // d / depth first
-    if (key.equals("d")) {
-      this.searching = true;
-      this.depthFirst = true;
+    else if (name.equals("boruvka")) {
+      return new BoruvkaGenerator();
     }
-    // r / reset
-    if (key.equals("r")) {
-      this.preferHorizontal = false;
-      this.preferVertical = false;
-      this.reset();
+    else if (name.equals("backtracker")) {
+      return new BacktrackerGenerator();
     }
-    // h / horizontal bias
-    if (key.equals("h")) {
-      this.preferHorizontal = true;
-      this.preferVertical = false;
-      this.reset();
+    else if (name.equals("prim")) {
+      return new PrimGenerator();
     }
-    // v / vertical bias
-    if (key.equals("v")) {
-      this.preferVertical = true;
-      this.preferHorizontal = false;
-      this.reset();
+    else if (name.equals("wilson")) {
+      return new WilsonGenerator();
     }
-    // backspace / clear
-    if (key.equals("backspace")) {
-      this.preferHorizontal = false;
-      this.preferVertical = false;
-      this.clear();
+    else {
+      throw new IllegalArgumentException("unknown generator " + name);
     }
-    // enter / solution
-    if (key.equals("enter")) {
-      this.searching = false;
-      Cell cell = this.board.get(height - 1).get(length - 1);
-      if (this.doneBFS) {
-        this.breadthFirst();
-        while (!(cell.equals(this.board.get(0).get(0)))) {
-          cell.changeColor(Color.blue);
-          cell = cameFromCells.get(cell);
-        }
-        this.doneBackTracking = true;
-        this.tick = 0;
-      }
-      if (this.doneDFS) {
-        this.depthFirst();
-        while (!(cell.equals(this.board.get(0).get(0)))) {
-          cell.changeColor(Color.blue);
-          cell = cameFromCells.get(cell);
-        }
-        this.doneBackTracking = true;
-        this.tick = 0;
-      }
+  }
+}
+
+// GridGenerator is what the generators that grow a maze one cell at a time share: a bitset
+// of the cells already in the maze and a way to pick the next neighbour
+// a biased generator picks a neighbour the preferred way BIAS_PERCENT of the time it can
+abstract class GridGenerator implements MazeGenerator {
+  static final int BIAS_PERCENT = 75;
+  // one bit per cell, set once the cell is in the maze
+  long[] inMaze;
+  long workingSetBytes;
+
+  public long workingSetBytes() {
+    return this.workingSetBytes;
+  }
+
+  // takes every cell of the given grid out of the maze
+  // the bitset is kept for the next maze of the same size
+  void startOver(MazeGrid grid) {
+    if (this.inMaze == null || this.inMaze.length != (grid.cells() + 63) >>> 6) {
+      this.inMaze = new long[(grid.cells() + 63) >>> 6];
     }
-    // traversing
-    if (!this.searching) {
-      Cell current = this.board.get(curY).get(curX);
-      Cell end = this.board.get(height - 1).get(length - 1);
-      if (key.equals("left") && (!current.left)) {
-        current.changeColor(Color.LIGHT_GRAY);
-        curX = curX - 1;
-        current = this.board.get(curY).get(curX);
-        current.changeColor(Color.gray);
-      }
-      if (key.equals("right") && (!current.right)) {
-        current.changeColor(Color.LIGHT_GRAY);
-        curX = curX + 1;
-        current = this.board.get(curY).get(curX);
-        if (current.equals(end)) {
-          this.completed = true;
-        }
-        current.changeColor(Color.gray);
-      }
-      if (key.equals("up") && (!current.top)) {
-        current.changeColor(Color.LIGHT_GRAY);
-        curY = curY - 1;
-        current = this.board.get(curY).get(curX);
-        current.changeColor(Color.gray);
-      }
-      if (key.equals("down") && (!current.bottom)) {
-        current.changeColor(Color.LIGHT_GRAY);
-        curY = curY + 1;
-        current = this.board.get(curY).get(curX);
-        if (current.equals(end)) {
-          this.completed = true;
-        }
-        current.changeColor(Color.gray);
-      }
+    else {
+      Arrays.fill(this.inMaze, 0L);
     }
   }
 
-  // handles each tick
-  public void onTick() {
-    if (this.searching) {
-      if (!visitedBFS.isEmpty()) {
-        if (this.tick < this.visitedBFS.size()) {
-          Cell displayCell = this.visitedBFS.get(this.tick);
-          displayCell.changeColor(Color.cyan);
-          this.tick++;
-        }
+  // determines if the given cell is in the maze
+  boolean inMaze(int cell) {
+    return (this.inMaze[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // puts the given cell in the maze
+  void addToMaze(int cell) {
+    this.inMaze[cell >>> 6] = this.inMaze[cell >>> 6] | (1L << cell);
+  }
+
+  // puts the neighbours of the given cell into the given array, up, left, right and then down
+  // returns how many there are
+  static int neighbors(MazeGrid grid, int cell, int[] into) {
+    int count = 0;
+    int col = cell % grid.length;
+    if (cell >= grid.length) {
+      into[count] = cell - grid.length;
+      count = count + 1;
+    }
+    if (col > 0) {
+      into[count] = cell - 1;
+      count = count + 1;
+    }
+    if (col < grid.length - 1) {
+      into[count] = cell + 1;
+      count = count + 1;
+    }
+    if (cell + grid.length < grid.cells()) {
+      into[count] = cell + grid.length;
+      count = count + 1;
+    }
+    return count;
+  }
+
+  // puts the neighbours of the given cell that are in the maze, or that are not, into the
+  // given array and returns how many there are
+  int neighborsInMaze(MazeGrid grid, int cell, boolean inMaze, int[] into) {
+    int count = neighbors(grid, cell, into);
+    int kept = 0;
+    for (int i = 0; i < count; i = i + 1) {
+      if (this.inMaze(into[i]) == inMaze) {
+        into[kept] = into[i];
+        kept = kept + 1;
       }
-      if (!visitedDFS.isEmpty()) {
-        if (this.tick < this.visitedDFS.size()) {
-          Cell displayCell = this.visitedDFS.get(this.tick);
-          displayCell.changeColor(Color.cyan);
-          this.tick++;
+    }
+    return kept;
+  }
+
+  // picks one of the first count cells in options, which all neighbour the given cell
+  static int pick(MazeGrid grid, int cell, int[] options, int count, Random rand,
+      boolean preferHorizontal, boolean preferVertical) {
+    if (preferHorizontal || preferVertical) {
+      int preferred = 0;
+      for (int i = 0; i < count; i = i + 1) {
+        if ((Math.abs(options[i] - cell) != grid.length) == preferHorizontal) {
+          preferred = preferred + 1;
         }
       }
-      if (!this.end) {
-        if (this.breadthFirst) {
-          if (this.breadthFirst()) {
-            this.end = true;
+      if (preferred > 0 && (preferred == count || rand.nextInt(100) < BIAS_PERCENT)) {
+        int chosen = rand.nextInt(preferred);
+        for (int i = 0; i < count; i = i + 1) {
+          if ((Math.abs(options[i] - cell) != grid.length) == preferHorizontal) {
+            if (chosen == 0) {
+              return options[i];
+            }
+            chosen = chosen - 1;
           }
         }
-        if (this.depthFirst) {
-          if (this.depthFirst()) {
-            this.end = true;
-          }
+      }
+    }
+    return options[rand.nextInt(count)];
+  }
+}
+
+// BacktrackerGenerator makes a maze with a depth-first walk that carves into a random
+// unvisited neighbour, backing up along an explicit stack when it is stuck
+// it makes long winding passages with few branches
+class BacktrackerGenerator extends GridGenerator {
+  public String name() {
+    return "backtracker";
+  }
+
+  public int[] generate(MazeGrid grid, Random rand, boolean preferHorizontal,
+      boolean preferVertical) {
+    this.startOver(grid);
+    int[] mst = new int[grid.cells() - 1];
+    int count = 0;
+    int[] options = new int[4];
+    int[] stack = new int[16];
+    int top = 0;
+    int start = rand.nextInt(grid.cells());
+    this.addToMaze(start);
+    stack[top] = start;
+    top = top + 1;
+    while (top > 0) {
+      int cell = stack[top - 1];
+      int found = this.neighborsInMaze(grid, cell, false, options);
+      if (found == 0) {
+        top = top - 1;
+      }
+      else {
+        int next = pick(grid, cell, options, found, rand, preferHorizontal, preferVertical);
+        int edge = grid.edgeBetween(cell, next);
+        grid.open(edge);
+        mst[count] = edge;
+        count = count + 1;
+        this.addToMaze(next);
+        if (top == stack.length) {
+          stack = Arrays.copyOf(stack, stack.length * 2);
         }
+        stack[top] = next;
+        top = top + 1;
       }
     }
+    this.workingSetBytes = 8L * this.inMaze.length + 4L * stack.length + 4L * mst.length;
+    return mst;
   }
+}
 
-  // resets with a new random maze
-  public void reset() {
-    this.board = new ArrayList<ArrayList<Cell>>();
+// PrimGenerator makes a maze the way randomized Prim's algorithm does: it keeps a frontier
+// of the cells next to the maze, and joins a random one of them to the maze each step
+// it makes short passages with many branches
+class PrimGenerator extends GridGenerator {
+  // one bit per cell, set once the cell has been put on the frontier
+  long[] seen;
+
+  public String name() {
+    return "prim";
+  }
+
+  public int[] generate(MazeGrid grid, Random rand, boolean preferHorizontal,
+      boolean preferVertical) {
+    this.startOver(grid);
+    if (this.seen == null || this.seen.length != this.inMaze.length) {
+      this.seen = new long[this.inMaze.length];
+    }
+    else {
+      Arrays.fill(this.seen, 0L);
+    }
+    int[] mst = new int[grid.cells() - 1];
+    int count = 0;
+    int[] options = new int[4];
+    int[] frontier = new int[16];
+    int size = 0;
+    int cell = rand.nextInt(grid.cells());
+    this.seen[cell >>> 6] = this.seen[cell >>> 6] | (1L << cell);
+    while (true) {
+      this.addToMaze(cell);
+      int found = neighbors(grid, cell, options);
+      for (int i = 0; i < found; i = i + 1) {
+        int next = options[i];
+        if ((this.seen[next >>> 6] & (1L << next)) == 0) {
+          this.seen[next >>> 6] = this.seen[next >>> 6] | (1L << next);
+          if (size == frontier.length) {
+            frontier = Arrays.copyOf(frontier, frontier.length * 2);
+          }
+          frontier[size] = next;
+          size = size + 1;
+        }
+      }
+      if (size == 0) {
+        break;
+      }
+      int index = rand.nextInt(size);
+      cell = frontier[index];
+      frontier[index] = frontier[size - 1];
+      size = size - 1;
+      int joined = this.neighborsInMaze(grid, cell, true, options);
+      int edge = grid.edgeBetween(cell,
+          pick(grid, cell, options, joined, rand, preferHorizontal, preferVertical));
+      grid.open(edge);
+      mst[count] = edge;
+      count = count + 1;
+    }
+    this.workingSetBytes = 16L * this.inMaze.length + 4L * frontier.length + 4L * mst.length;
+    return mst;
+  }
+}
+
+// WilsonGenerator makes a maze with Wilson's algorithm: from each cell not yet in the maze
+// it walks at random until it reaches the maze, then adds the walk with its loops erased
+// without a bias every spanning tree is equally likely, at the cost of long walks early on
+class WilsonGenerator extends GridGenerator {
+  public String name() {
+    return "wilson";
+  }
+
+  public int[] generate(MazeGrid grid, Random rand, boolean preferHorizontal,
+      boolean preferVertical) {
+    this.startOver(grid);
+    int[] mst = new int[grid.cells() - 1];
+    int count = 0;
+    int[] options = new int[4];
+    // the cell each cell on the walk last stepped to; going back over a cell overwrites
+    // its step, which erases the loop
+    int[] step = new int[grid.cells()];
+    this.addToMaze(rand.nextInt(grid.cells()));
+    for (int start = 0; start < grid.cells(); start = start + 1) {
+      int cell = start;
+      while (!this.inMaze(cell)) {
+        int found = neighbors(grid, cell, options);
+        step[cell] = pick(grid, cell, options, found, rand, preferHorizontal, preferVertical);
+        cell = step[cell];
+      }
+      cell = start;
+      while (!this.inMaze(cell)) {
+        int edge = grid.edgeBetween(cell, step[cell]);
+        grid.open(edge);
+        mst[count] = edge;
+        count = count + 1;
+        this.addToMaze(cell);
+        cell = step[cell];
+      }
+    }
+    this.workingSetBytes = 8L * this.inMaze.length + 4L * step.length + 4L * mst.length;
+    return mst;
+  }
+}
+
+// GenerationStats is how long one generator took to make a maze of some size, the bytes it
+// allocated doing so on every thread, and the working memory it's estimated to have needed
+class GenerationStats {
+  String generator;
+  int length;
+  int height;
+  long nanos;
+  // measured, or 0 if the JVM can't count allocated bytes
+  long allocatedBytes;
+  long workingSetBytes;
+
+  GenerationStats(String generator, int length, int height, long nanos, long allocatedBytes,
+      long workingSetBytes) {
+    this.generator = generator;
+    this.length = length;
+    this.height = height;
+    this.nanos = nanos;
+    this.allocatedBytes = allocatedBytes;
+    this.workingSetBytes = workingSetBytes;
+  }
+
+  // gets the time taken per cell in nanoseconds
+  double nanosPerCell() {
+    return (double) this.nanos / (this.length * this.height);
+  }
+
+  // makes a maze of the given size from the given seed with the named generator, keeping the
+  // quickest of the given number of rounds
+  static GenerationStats measure(String name, int length, int height, long seed, int rounds) {
+    long best = Long.MAX_VALUE;
+    long allocatedBytes = 0;
+    long workingSetBytes = 0;
+    for (int round = 0; round < rounds; round = round + 1) {
+      MazeGrid grid = new MazeGrid(length, height);
+      MazeGenerator generator = MazeGenerator.named(name, grid.cells());
+      long[][] allocatedBefore = MazeBenchmark.allocations();
+      long start = System.nanoTime();
+      generator.generate(grid, new Random(seed), false, false);
+      best = Math.min(best, System.nanoTime() - start);
+      allocatedBytes = MazeBenchmark.allocatedSince(allocatedBefore);
+      workingSetBytes = generator.workingSetBytes();
+    }
+    return new GenerationStats(name, length, height, best, allocatedBytes, workingSetBytes);
+  }
+
+  // measures every generator on a maze of the given size
+  static ArrayList<GenerationStats> measureAll(int length, int height, long seed, int rounds) {
+    ArrayList<GenerationStats> all = new ArrayList<GenerationStats>();
+    for (String name : MazeGenerator.NAMES) {
+      all.add(measure(name, length, height, seed, rounds));
+    }
+    return all;
+  }
+
+  // gets the name of the generator that made a maze of the given size quickest
+  static String fastest(int length, int height, long seed, int rounds) {
+    GenerationStats best = null;
+    for (GenerationStats stats : measureAll(length, height, seed, rounds)) {
+      if (best == null || stats.nanos < best.nanos) {
+        best = stats;
+      }
+    }
+    return best.generator;
+  }
+}
+
+// KruskalGenerator makes a maze on a MazeGrid by giving every edge a random weight and
+// taking down the walls crossed by the minimum spanning tree
+// a horizontal or vertical bias makes those edges 100000 lighter, so they are taken first
+class KruskalGenerator implements MazeGenerator {
+  // weight of each edge, by edge number
+  int[] weights;
+  // each edge packed as its weight (shifted to be positive) over its number
+  long[] edges;
+  long workingSetBytes;
+  // kept from one maze to the next of the same size, so making another one makes no garbage
+  long[] buffer;
+  UnionFind representatives;
+  int[] tree;
+
+  public String name() {
+    return "kruskal";
+  }
+
+  public long workingSetBytes() {
+    return this.workingSetBytes;
+  }
+
+  // gets the generator to use for a grid with the given number of cells, which runs in
+  // parallel on the common pool once the grid is big enough for that to pay off
+  static KruskalGenerator forCells(int cells) {
+    return forCells(cells, ForkJoinPool.getCommonPoolParallelism());
+  }
+
+  // gets the generator to use for a grid with the given number of cells with the given
+  // number of threads to run on; on one thread Boruvka's algorithm is only slower
+  static KruskalGenerator forCells(int cells, int parallelism) {
+    if (cells >= BoruvkaGenerator.PARALLEL_CELLS && parallelism > 1) {
+      return new BoruvkaGenerator();
+    }
+    else {
+      return new KruskalGenerator();
+    }
+  }
+
+  // makes a maze on the given grid, which should have all its walls up
+  // returns the numbers of the edges in the minimum spanning tree, in an array that the next
+  // maze of the same size reuses
+  public int[] generate(MazeGrid grid, Random rand, boolean preferHorizontal,
+      boolean preferVertical) {
+    this.addEdges(grid, rand, preferHorizontal, preferVertical);
+    return this.spanningTree(grid);
+  }
+
+  // gets minimum spanning tree of the edges added last
+  // and takes down the walls its edges cross
+  int[] spanningTree(MazeGrid grid) {
+    return this.kruskal(grid);
+  }
+
+  // gives every edge of the given grid a weight, one draw from rand per cell shared by the
+  // edges going right and down from it
+  void addEdges(MazeGrid grid, Random rand, boolean preferHorizontal, boolean preferVertical) {
+    int length = grid.length;
+    int height = grid.height;
+    int edgeCount = (length - 1) * height + length * (height - 1);
+    if (this.weights == null || this.weights.length != 2 * height * length) {
+      this.weights = new int[2 * height * length];
+    }
+    // grids of the same size but different shapes have different numbers of edges
+    if (this.edges == null || this.edges.length != edgeCount) {
+      this.edges = new long[edgeCount];
+      this.buffer = new long[edgeCount];
+    }
+    int count = 0;
     for (int row = 0; row < height; row = row + 1) {
-      board.add(new ArrayList<Cell>());
-      for (int column = 0; column < length; column = column + 1) {
-        board.get(row).add(new Cell(column, row));
+      for (int col = 0; col < length; col = col + 1) {
+        int edgeWeight = rand.nextInt(100000);
+        int cell = grid.id(col, row);
+        if (col < length - 1) {
+          if (preferHorizontal) {
+            this.weights[2 * cell] = edgeWeight - 100000;
+          }
+          else {
+            this.weights[2 * cell] = edgeWeight;
+          }
+          this.edges[count] = edgeKey(this.weights[2 * cell], 2 * cell);
+          count = count + 1;
+        }
+        if (row < height - 1) {
+          if (preferVertical) {
+            this.weights[2 * cell + 1] = edgeWeight - 100000;
+          }
+          else {
+            this.weights[2 * cell + 1] = edgeWeight;
+          }
+          this.edges[count] = edgeKey(this.weights[2 * cell + 1], 2 * cell + 1);
+          count = count + 1;
+        }
+      }
+    }
+  }
+
+  // packs an edge's weight and number into one long, so that sorting the longs
+  // sorts by weight and keeps edges of equal weight in the order they were added
+  static long edgeKey(int weight, int edge) {
+    return ((long) (weight + 100000) << 32) | edge;
+  }
+
+  // bits of the shifted weight looked at by each pass of sortKeys
+  static final int DIGIT_BITS = 9;
+  static final int DIGIT_MASK = (1 << DIGIT_BITS) - 1;
+
+  // sorts keys made by edgeKey, whose shifted weights are under 2^18, with two stable
+  // counting passes over the weight: the low 9 bits and then the high 9 bits
+  // edges are added in order of their numbers, so this gives the same order as Arrays.sort
+  static void sortKeys(long[] keys) {
+    sortKeys(keys, new long[keys.length]);
+  }
+
+  // sorts keys made by edgeKey, using the given buffer, which is at least as long as keys
+  static void sortKeys(long[] keys, long[] buffer) {
+    int[] low = new int[DIGIT_MASK + 2];
+    int[] high = new int[DIGIT_MASK + 2];
+    for (long key : keys) {
+      int weight = (int) (key >>> 32);
+      low[(weight & DIGIT_MASK) + 1] = low[(weight & DIGIT_MASK) + 1] + 1;
+      high[(weight >>> DIGIT_BITS) + 1] = high[(weight >>> DIGIT_BITS) + 1] + 1;
+    }
+    for (int digit = 1; digit < low.length; digit = digit + 1) {
+      low[digit] = low[digit] + low[digit - 1];
+      high[digit] = high[digit] + high[digit - 1];
+    }
+    for (long key : keys) {
+      int digit = (int) (key >>> 32) & DIGIT_MASK;
+      buffer[low[digit]] = key;
+      low[digit] = low[digit] + 1;
+    }
+    // only the first keys.length places of the buffer hold keys
+    for (int i = 0; i < keys.length; i = i + 1) {
+      long key = buffer[i];
+      int digit = (int) (key >>> (32 + DIGIT_BITS));
+      keys[high[digit]] = key;
+      high[digit] = high[digit] + 1;
+    }
+  }
+
+  // gets minimum spanning tree
+  // and takes down the walls its edges cross
+  int[] kruskal(MazeGrid grid) {
+    if (this.tree == null || this.tree.length != grid.cells() - 1) {
+      this.representatives = new UnionFind(grid.cells());
+      this.tree = new int[grid.cells() - 1];
+    }
+    else {
+      this.representatives.clear();
+    }
+    // two cells are connected if they have the same representative in the union-find
+    UnionFind representatives = this.representatives;
+    int[] mst = this.tree;
+    int count = 0;
+    sortKeys(this.edges, this.buffer);
+    for (long key : this.edges) {
+      if (count == mst.length) {
+        break;
+      }
+      int edge = (int) key;
+      if (representatives.union(MazeGrid.from(edge), grid.to(edge))) {
+        mst[count] = edge;
+        count = count + 1;
+        grid.open(edge);
+      }
+    }
+    // the weights, the keys and the radix sort's buffer for them, and the union-find
+    this.workingSetBytes = 4L * this.weights.length + 16L * this.edges.length + 5L * grid.cells()
+        + 4L * mst.length;
+    return mst;
+  }
+}
+
+// BoruvkaGenerator makes the same mazes as KruskalGenerator, with the same weights and
+// biases, but finds the spanning tree with Boruvka's algorithm spread over a fork-join pool
+// every edge key is distinct, so the minimum spanning tree is unique and both find the same one
+// each round every component picks its cheapest way out, and the components are joined
+// along those edges; edges inside a component are dropped from the scan as rounds go by
+class BoruvkaGenerator extends KruskalGenerator {
+  public String name() {
+    return "boruvka";
+  }
+
+  // grids with at least this many cells are worth generating in parallel
+  static final int PARALLEL_CELLS = 1 << 20;
+  // edges scanned and compacted by one task
+  static final int CHUNK = 1 << 14;
+  // cells handled by one task
+  static final int GRAIN = 1 << 14;
+  ForkJoinPool pool;
+
+  BoruvkaGenerator() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  BoruvkaGenerator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  // gets minimum spanning tree with Boruvka's algorithm
+  // and takes down the walls its edges cross
+  // the tree's edges come back in order of their numbers rather than their weights
+  int[] spanningTree(MazeGrid grid) {
+    int cells = grid.cells();
+    // the component each cell is in, named by one of its cells
+    int[] component = new int[cells];
+    // the component each component is being joined to, by name
+    int[] parent = new int[cells];
+    AtomicLongArray cheapest = new AtomicLongArray(cells);
+    boolean[] tree = new boolean[2 * cells];
+    long[] live = this.edges.clone();
+    // where each round's live edges are compacted to, swapped with live after
+    long[] next = new long[live.length];
+    int liveCount = live.length;
+    // the edges each chunk keeps, and then where in next they go
+    int[] kept = new int[(Math.max(liveCount, tree.length) + CHUNK - 1) / CHUNK];
+    RangeTask.forRange(this.pool, cells, GRAIN, (from, to) -> {
+      for (int cell = from; cell < to; cell = cell + 1) {
+        component[cell] = cell;
+      }
+    });
+    while (true) {
+      RangeTask.forRange(this.pool, cells, GRAIN, (from, to) -> {
+        for (int cell = from; cell < to; cell = cell + 1) {
+          if (component[cell] == cell) {
+            cheapest.set(cell, Long.MAX_VALUE);
+          }
+        }
+      });
+      // finds each component's cheapest edge out, keeping only the edges between components
+      long[] scan = live;
+      int scanCount = liveCount;
+      int chunks = (scanCount + CHUNK - 1) / CHUNK;
+      RangeTask.forRange(this.pool, chunks, 1, (from, to) -> {
+        for (int chunk = from; chunk < to; chunk = chunk + 1) {
+          int start = chunk * CHUNK;
+          int end = Math.min(start + CHUNK, scanCount);
+          int write = start;
+          for (int i = start; i < end; i = i + 1) {
+            long key = scan[i];
+            int edge = (int) key;
+            int a = component[MazeGrid.from(edge)];
+            int b = component[grid.to(edge)];
+            if (a != b) {
+              lower(cheapest, a, key);
+              lower(cheapest, b, key);
+              scan[write] = key;
+              write = write + 1;
+            }
+          }
+          kept[chunk] = write - start;
+        }
+      });
+      // each chunk copies what it kept to its place in next, in parallel
+      int total = offsets(kept, chunks);
+      long[] into = next;
+      RangeTask.forRange(this.pool, chunks, 1, (from, to) -> {
+        for (int chunk = from; chunk < to; chunk = chunk + 1) {
+          int count = (chunk + 1 < chunks ? kept[chunk + 1] : total) - kept[chunk];
+          System.arraycopy(scan, chunk * CHUNK, into, kept[chunk], count);
+        }
+      });
+      next = live;
+      live = into;
+      liveCount = total;
+      if (liveCount == 0) {
+        break;
+      }
+      // joins each component to the one across its cheapest edge
+      RangeTask.forRange(this.pool, cells, GRAIN, (from, to) -> {
+        for (int cell = from; cell < to; cell = cell + 1) {
+          if (component[cell] == cell) {
+            int edge = (int) cheapest.get(cell);
+            int other = component[MazeGrid.from(edge)];
+            if (other == cell) {
+              other = component[grid.to(edge)];
+            }
+            parent[cell] = other;
+          }
+        }
+      });
+      // two components that picked each other picked the same edge, so the lower one
+      // becomes the root and only the other one adds the edge to the tree
+      RangeTask.forRange(this.pool, cells, GRAIN, (from, to) -> {
+        for (int cell = from; cell < to; cell = cell + 1) {
+          if (component[cell] == cell) {
+            int other = parent[cell];
+            if (parent[other] == cell && cell < other) {
+              parent[cell] = cell;
+            }
+            else {
+              tree[(int) cheapest.get(cell)] = true;
+            }
+          }
+        }
+      });
+      // points every joined component straight at its root
+      AtomicBoolean changed = new AtomicBoolean(true);
+      while (changed.get()) {
+        changed.set(false);
+        RangeTask.forRange(this.pool, cells, GRAIN, (from, to) -> {
+          for (int cell = from; cell < to; cell = cell + 1) {
+            if (component[cell] == cell && parent[parent[cell]] != parent[cell]) {
+              parent[cell] = parent[parent[cell]];
+              changed.set(true);
+            }
+          }
+        });
+      }
+      RangeTask.forRange(this.pool, cells, GRAIN, (from, to) -> {
+        for (int cell = from; cell < to; cell = cell + 1) {
+          component[cell] = parent[component[cell]];
+        }
+      });
+    }
+    // each task only writes the walls of its own cells
+    RangeTask.forRange(this.pool, cells, GRAIN, (from, to) -> {
+      for (int cell = from; cell < to; cell = cell + 1) {
+        int open = 0;
+        if (tree[2 * cell]) {
+          open = open | MazeGrid.RIGHT;
+        }
+        if (tree[2 * cell + 1]) {
+          open = open | MazeGrid.BOTTOM;
+        }
+        if (cell % grid.length > 0 && tree[2 * (cell - 1)]) {
+          open = open | MazeGrid.LEFT;
+        }
+        if (cell >= grid.length && tree[2 * (cell - grid.length) + 1]) {
+          open = open | MazeGrid.TOP;
+        }
+        grid.walls[cell] = (byte) (grid.walls[cell] & ~open);
+      }
+    });
+    // collects the tree's edges the same way: each chunk counts its edges, then writes them
+    // from where the chunks before it end
+    int[] mst = new int[cells - 1];
+    int treeChunks = (tree.length + CHUNK - 1) / CHUNK;
+    RangeTask.forRange(this.pool, treeChunks, 1, (from, to) -> {
+      for (int chunk = from; chunk < to; chunk = chunk + 1) {
+        int count = 0;
+        for (int edge = chunk * CHUNK; edge < Math.min(tree.length, (chunk + 1) * CHUNK);
+            edge = edge + 1) {
+          if (tree[edge]) {
+            count = count + 1;
+          }
+        }
+        kept[chunk] = count;
+      }
+    });
+    offsets(kept, treeChunks);
+    RangeTask.forRange(this.pool, treeChunks, 1, (from, to) -> {
+      for (int chunk = from; chunk < to; chunk = chunk + 1) {
+        int write = kept[chunk];
+        for (int edge = chunk * CHUNK; edge < Math.min(tree.length, (chunk + 1) * CHUNK);
+            edge = edge + 1) {
+          if (tree[edge]) {
+            mst[write] = edge;
+            write = write + 1;
+          }
+        }
+      }
+    });
+    // the weights, the keys and two live copies, and four arrays over the cells
+    this.workingSetBytes = 4L * this.weights.length + 24L * this.edges.length + 18L * cells
+        + 4L * mst.length;
+    return mst;
+  }
+
+  // turns the first count places of the given counts into where each one starts when they
+  // are laid end to end, returning where the last one ends
+  static int offsets(int[] counts, int count) {
+    int total = 0;
+    for (int i = 0; i < count; i = i + 1) {
+      int size = counts[i];
+      counts[i] = total;
+      total = total + size;
+    }
+    return total;
+  }
+
+  // lowers the given slot of cheapest to key if key is less than what is there
+  static void lower(AtomicLongArray cheapest, int index, long key) {
+    long current = cheapest.get(index);
+    while (key < current && !cheapest.compareAndSet(index, current, key)) {
+      current = cheapest.get(index);
+    }
+  }
+}
+
+// RangeBody is the work done on one slice of a parallel loop
+interface RangeBody {
+  // does the work for the indices from up to (but not including) to
+  void run(int from, int to);
+}
+
+// RangeTask runs a RangeBody over a range of indices on a fork-join pool, splitting the
+// range in half until the slices are no longer than grain
+class RangeTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  RangeBody body;
+  int from;
+  int to;
+  int grain;
+
+  RangeTask(RangeBody body, int from, int to, int grain) {
+    this.body = body;
+    this.from = from;
+    this.to = to;
+    this.grain = grain;
+  }
+
+  // runs body over the indices 0 up to count on the given pool, returning when all are done
+  static void forRange(ForkJoinPool pool, int count, int grain, RangeBody body) {
+    if (count > 0) {
+      pool.invoke(new RangeTask(body, 0, count, grain));
+    }
+  }
+
+  protected void compute() {
+    if (this.to - this.from <= this.grain) {
+      this.body.run(this.from, this.to);
+    }
+    else {
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new RangeTask(this.body, this.from, middle, this.grain),
+          new RangeTask(this.body, middle, this.to, this.grain));
+    }
+  }
+}
+
+// UnionFind keeps track of which cells are already connected while a spanning tree
+// is built, using primitive parent and rank arrays indexed by cell number
+class UnionFind {
+  int[] parent;
+  byte[] rank;
+
+  UnionFind(int size) {
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    this.clear();
+  }
+
+  // puts every cell back in a set of its own
+  void clear() {
+    for (int i = 0; i < this.parent.length; i = i + 1) {
+      this.parent[i] = i;
+    }
+    Arrays.fill(this.rank, (byte) 0);
+  }
+
+  // gets the representative of the given cell's set, halving the path on the way up
+  int find(int cell) {
+    while (this.parent[cell] != cell) {
+      this.parent[cell] = this.parent[this.parent[cell]];
+      cell = this.parent[cell];
+    }
+    return cell;
+  }
+
+  // joins the sets of the two given cells
+  // returns false if they were already in the same set
+  boolean union(int a, int b) {
+    int rootA = this.find(a);
+    int rootB = this.find(b);
+    if (rootA == rootB) {
+      return false;
+    }
+    if (this.rank[rootA] < this.rank[rootB]) {
+      this.parent[rootA] = rootB;
+    }
+    else if (this.rank[rootA] > this.rank[rootB]) {
+      this.parent[rootB] = rootA;
+    }
+    else {
+      this.parent[rootB] = rootA;
+      this.rank[rootA] = (byte) (this.rank[rootA] + 1);
+    }
+    return true;
+  }
+}
+
+// RowSink takes a maze one row at a time, top to bottom
+// each byte of a row holds the MazeGrid.RIGHT and MazeGrid.BOTTOM bits of one cell
+interface RowSink {
+  // takes the walls of the given row; the array is reused for the next row
+  void acceptRow(int row, byte[] walls) throws IOException;
+}
+
+// ChannelRowSink packs each row it is given into 2 bits per cell (right wall, bottom wall)
+// and writes it to a channel, padding every row out to a whole number of bytes
+class ChannelRowSink implements RowSink {
+  WritableByteChannel channel;
+  ByteBuffer buffer;
+
+  ChannelRowSink(WritableByteChannel channel, int length) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocate(rowBytes(length));
+  }
+
+  // gets the number of bytes a packed row of the given length takes
+  static int rowBytes(int length) {
+    return (length + 3) / 4;
+  }
+
+  // packs the given row's walls into the given buffer
+  static void pack(byte[] walls, ByteBuffer into) {
+    int packed = 0;
+    for (int col = 0; col < walls.length; col = col + 1) {
+      int bits = 0;
+      if ((walls[col] & MazeGrid.RIGHT) != 0) {
+        bits = bits | 1;
+      }
+      if ((walls[col] & MazeGrid.BOTTOM) != 0) {
+        bits = bits | 2;
+      }
+      packed = packed | (bits << (2 * (col % 4)));
+      if (col % 4 == 3 || col == walls.length - 1) {
+        into.put((byte) packed);
+        packed = 0;
+      }
+    }
+  }
+
+  // writes the given row to the channel
+  public void acceptRow(int row, byte[] walls) throws IOException {
+    this.buffer.clear();
+    pack(walls, this.buffer);
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+  }
+}
+
+// EllerGenerator makes a perfect maze one row at a time with Eller's algorithm, keeping
+// only a few arrays as long as a row, so mazes far bigger than memory can be streamed out
+// each cell of the current row belongs to a set of cells already joined above it; cells
+// are joined to their right neighbor at random if they are in different sets, and every
+// set gets at least one passage down so nothing is cut off
+class EllerGenerator {
+  int length;
+  int height;
+  Random rand;
+  // chance of joining a cell to its right neighbor, and of a passage down
+  double joinChance;
+  double downChance;
+  // the set of each cell in the current row
+  int[] sets;
+  // sets are numbered below 2 * length: sets carried from above are renumbered below
+  // length, and new sets are numbered length + col
+  UnionFind joined;
+  // cells of each set in the row not yet given a passage down, or not yet looked at
+  int[] remaining;
+  boolean[] hasDown;
+  int[] renumber;
+  byte[] walls;
+
+  EllerGenerator(int length, int height, Random rand) {
+    this(length, height, rand, false, false);
+  }
+
+  EllerGenerator(int length, int height, Random rand, boolean preferHorizontal,
+      boolean preferVertical) {
+    this.length = length;
+    this.height = height;
+    this.rand = rand;
+    this.joinChance = 0.5;
+    this.downChance = 0.5;
+    if (preferHorizontal) {
+      this.joinChance = 0.8;
+      this.downChance = 0.2;
+    }
+    if (preferVertical) {
+      this.joinChance = 0.2;
+      this.downChance = 0.8;
+    }
+    this.sets = new int[length];
+    this.joined = new UnionFind(2 * length);
+    this.remaining = new int[2 * length];
+    this.hasDown = new boolean[2 * length];
+    this.renumber = new int[2 * length];
+    this.walls = new byte[length];
+  }
+
+  // makes the maze and hands it to the given sink row by row
+  void generate(RowSink sink) throws IOException {
+    Arrays.fill(this.sets, -1);
+    for (int row = 0; row < this.height; row = row + 1) {
+      boolean last = row == this.height - 1;
+      this.joined.clear();
+      for (int col = 0; col < this.length; col = col + 1) {
+        if (this.sets[col] < 0) {
+          this.sets[col] = this.length + col;
+        }
+        this.walls[col] = MazeGrid.RIGHT | MazeGrid.BOTTOM;
       }
+      // joins neighbors across the row; on the last row every set has to be joined
+      for (int col = 0; col < this.length - 1; col = col + 1) {
+        if (this.joined.find(this.sets[col]) != this.joined.find(this.sets[col + 1])
+            && (last || this.rand.nextDouble() < this.joinChance)) {
+          this.joined.union(this.sets[col], this.sets[col + 1]);
+          this.walls[col] = (byte) (this.walls[col] & ~MazeGrid.RIGHT);
+        }
+      }
+      if (!last) {
+        this.carveDown();
+      }
+      sink.acceptRow(row, this.walls);
+    }
+  }
+
+  // opens at least one passage down from each set in the row and works out the sets of
+  // the next row
+  void carveDown() {
+    Arrays.fill(this.remaining, 0);
+    Arrays.fill(this.hasDown, false);
+    Arrays.fill(this.renumber, -1);
+    for (int col = 0; col < this.length; col = col + 1) {
+      int set = this.joined.find(this.sets[col]);
+      this.remaining[set] = this.remaining[set] + 1;
     }
-    this.edges = new ArrayList<Edge>();
-    this.addEdges();
-    this.mst = this.kruskal();
-    for (Edge e : this.mst) {
-      if (e.isHorizontal()) {
-        e.from.right = false;
-        e.to.left = false;
+    int carried = 0;
+    for (int col = 0; col < this.length; col = col + 1) {
+      int set = this.joined.find(this.sets[col]);
+      this.remaining[set] = this.remaining[set] - 1;
+      boolean down = this.rand.nextDouble() < this.downChance
+          || (this.remaining[set] == 0 && !this.hasDown[set]);
+      if (down) {
+        this.hasDown[set] = true;
+        this.walls[col] = (byte) (this.walls[col] & ~MazeGrid.BOTTOM);
+        if (this.renumber[set] < 0) {
+          this.renumber[set] = carried;
+          carried = carried + 1;
+        }
+        this.sets[col] = this.renumber[set];
       }
       else {
-        e.from.bottom = false;
-        e.to.top = false;
+        this.sets[col] = -1;
       }
     }
-    this.visitedBFS = new ArrayList<Cell>();
-    this.visitedDFS = new ArrayList<Cell>();
-    this.breadthFirst = false;
-    this.depthFirst = false;
-    this.searching = false;
-    this.end = false;
-    this.tick = 0;
-    this.cameFromCells = new HashMap<Cell, Cell>();
-    this.doneBackTracking = false;
-    this.curX = 0;
-    this.curY = 0;
-    this.doneBFS = false;
-    this.doneDFS = false;
-    this.completed = false;
   }
+}
 
-  // clears the board without creating a new random maze
-  public void clear() {
-    for (int row = 0; row < height; row = row + 1) {
-      for (int column = 0; column < length; column = column + 1) {
-        this.board.get(row).get(column).changeColor(Color.white);
+// MazeAnalytics works out how hard a maze is in one pass over its rows, top to bottom, keeping
+// only a few arrays as long as a row, so it can sit at the end of a generator's row stream
+// it counts each cell's open sides, and measures every corridor: a run of cells with two
+// open sides each, between two cells that are dead ends or junctions
+// corridors still being walked when a row ends are kept by the passage down they go on
+// through, and joined with a UnionFind when two of them meet below
+// the solution is found with a shrunken copy of the maze as a tree: each row's cells are added
+// to it, and then any cell that is neither the start, the goal nor above a passage down is
+// dropped if it's a dead end, or bridged if it has two neighbors, so at most about two cells
+// per column are ever kept, and at the end only the start, the goal and the steps between
+// them are left
+// the solution is only right for perfect mazes, which every generator here makes
+class MazeAnalytics implements RowSink {
+  int length;
+  int height;
+  // cell numbers, which are longs since the biggest mazes have more cells than an int holds
+  long start;
+  long goal;
+  // number of cells with each number of open sides
+  long[] degrees;
+  // corridor lengths, in steps
+  Histogram corridors;
+  // the previous row's walls
+  byte[] above;
+  // the corridor going down from each cell of the previous row, or -1 if there's no passage
+  int[] up;
+  // length in steps and number of ends not yet reached of each corridor, by representative
+  int[] chainLength;
+  int[] chainOpen;
+  int chainCount;
+  UnionFind chains;
+  int[] renumber;
+  int[] nextLength;
+  int[] nextOpen;
+  // the shrunken tree: each node is a cell with up to 4 neighbors and the steps to each
+  long[] nodeCell;
+  int[] nodeDegree;
+  int[] neighbor;
+  long[] steps;
+  // set for nodes above a passage down, which can't be dropped until the next row
+  boolean[] pending;
+  int[] free;
+  int freeCount;
+  // the node above a passage down in each column of the previous row, or -1
+  int[] port;
+  int[] rowNode;
+  int[] work;
+  int startNode;
+  int goalNode;
+  int rows;
+
+  MazeAnalytics(int length, int height) {
+    this(length, height, 0, (long) length * height - 1);
+  }
+
+  MazeAnalytics(int length, int height, long start, long goal) {
+    this.length = length;
+    this.height = height;
+    this.start = start;
+    this.goal = goal;
+    this.degrees = new long[5];
+    this.corridors = new Histogram();
+    this.above = new byte[length];
+    this.up = new int[length];
+    Arrays.fill(this.up, -1);
+    int chainCapacity = 3 * length + 4;
+    this.chainLength = new int[chainCapacity];
+    this.chainOpen = new int[chainCapacity];
+    this.chainCount = 0;
+    this.chains = new UnionFind(chainCapacity);
+    this.renumber = new int[chainCapacity];
+    Arrays.fill(this.renumber, -1);
+    this.nextLength = new int[chainCapacity];
+    this.nextOpen = new int[chainCapacity];
+    int nodeCapacity = 3 * length + 8;
+    this.nodeCell = new long[nodeCapacity];
+    Arrays.fill(this.nodeCell, -1);
+    this.nodeDegree = new int[nodeCapacity];
+    this.neighbor = new int[4 * nodeCapacity];
+    this.steps = new long[4 * nodeCapacity];
+    this.pending = new boolean[nodeCapacity];
+    this.free = new int[nodeCapacity];
+    for (int i = 0; i < nodeCapacity; i = i + 1) {
+      this.free[i] = nodeCapacity - 1 - i;
+    }
+    this.freeCount = nodeCapacity;
+    this.port = new int[length];
+    Arrays.fill(this.port, -1);
+    this.rowNode = new int[length];
+    this.work = new int[2 * nodeCapacity + 2 * length];
+    this.startNode = -1;
+    this.goalNode = -1;
+    this.rows = 0;
+  }
+
+  // analyzes the given maze
+  static MazeAnalytics of(MazeWalls maze) {
+    MazeAnalytics analytics = new MazeAnalytics(maze.length(), maze.height());
+    try {
+      maze.emitRows(analytics);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return analytics;
+  }
+
+  // takes the walls of the given row
+  public void acceptRow(int row, byte[] walls) {
+    boolean lastRow = row == this.height - 1;
+    int rightChain = -1;
+    for (int col = 0; col < this.length; col = col + 1) {
+      long cell = (long) row * this.length + col;
+      boolean top = row > 0 && (this.above[col] & MazeGrid.BOTTOM) == 0;
+      boolean left = col > 0 && (walls[col - 1] & MazeGrid.RIGHT) == 0;
+      boolean right = col < this.length - 1 && (walls[col] & MazeGrid.RIGHT) == 0;
+      boolean bottom = !lastRow && (walls[col] & MazeGrid.BOTTOM) == 0;
+      int degree = 0;
+      if (top) {
+        degree = degree + 1;
+      }
+      if (left) {
+        degree = degree + 1;
+      }
+      if (right) {
+        degree = degree + 1;
+      }
+      if (bottom) {
+        degree = degree + 1;
+      }
+      this.degrees[degree] = this.degrees[degree] + 1;
+      // corridors
+      int fromAbove = -1;
+      if (top) {
+        fromAbove = this.up[col];
+      }
+      int fromLeft = -1;
+      if (left) {
+        fromLeft = rightChain;
+      }
+      int goingRight = -1;
+      int goingDown = -1;
+      if (degree == 2) {
+        if (fromAbove >= 0 && fromLeft >= 0) {
+          this.join(fromAbove, fromLeft);
+        }
+        else if (fromAbove >= 0 || fromLeft >= 0) {
+          int chain = this.chains.find(Math.max(fromAbove, fromLeft));
+          this.chainLength[chain] = this.chainLength[chain] + 1;
+          if (right) {
+            goingRight = chain;
+          }
+          else {
+            goingDown = chain;
+          }
+        }
+        else {
+          goingRight = this.newChain(2, 2);
+          goingDown = goingRight;
+        }
+      }
+      else {
+        if (fromAbove >= 0) {
+          this.reachEnd(fromAbove);
+        }
+        if (fromLeft >= 0) {
+          this.reachEnd(fromLeft);
+        }
+        if (right) {
+          goingRight = this.newChain(1, 1);
+        }
+        if (bottom) {
+          goingDown = this.newChain(1, 1);
+        }
+      }
+      this.up[col] = goingDown;
+      rightChain = goingRight;
+      // the shrunken tree
+      int node = this.newNode(cell);
+      if (top) {
+        this.link(node, this.port[col], 1);
+      }
+      if (left) {
+        this.link(node, this.rowNode[col - 1], 1);
+      }
+      this.rowNode[col] = node;
+    }
+    this.renumberChains();
+    int count = 0;
+    for (int col = 0; col < this.length; col = col + 1) {
+      int old = this.port[col];
+      if (old >= 0) {
+        this.pending[old] = false;
+        this.work[count] = old;
+        count = count + 1;
+      }
+      int node = this.rowNode[col];
+      if (!lastRow && (walls[col] & MazeGrid.BOTTOM) == 0) {
+        this.pending[node] = true;
+        this.port[col] = node;
+      }
+      else {
+        this.port[col] = -1;
+        this.work[count] = node;
+        count = count + 1;
+      }
+    }
+    this.prune(count);
+    System.arraycopy(walls, 0, this.above, 0, this.length);
+    this.rows = this.rows + 1;
+  }
+
+  // starts a corridor of the given number of steps with the given number of ends not reached
+  int newChain(int steps, int open) {
+    int chain = this.chainCount;
+    this.chainCount = this.chainCount + 1;
+    this.chainLength[chain] = steps;
+    this.chainOpen[chain] = open;
+    return chain;
+  }
+
+  // reaches an end of the given corridor, counting it once both ends are reached
+  void reachEnd(int chain) {
+    int root = this.chains.find(chain);
+    this.chainOpen[root] = this.chainOpen[root] - 1;
+    if (this.chainOpen[root] == 0) {
+      this.corridors.record(this.chainLength[root]);
+    }
+  }
+
+  // joins the two given corridors where their ends meet
+  void join(int a, int b) {
+    int rootA = this.chains.find(a);
+    int rootB = this.chains.find(b);
+    int length = this.chainLength[rootA];
+    int open = this.chainOpen[rootA] - 2;
+    if (rootA != rootB) {
+      length = length + this.chainLength[rootB];
+      open = open + this.chainOpen[rootB];
+      this.chains.union(rootA, rootB);
+    }
+    int root = this.chains.find(rootA);
+    this.chainLength[root] = length;
+    this.chainOpen[root] = open;
+    if (open == 0) {
+      this.corridors.record(length);
+    }
+  }
+
+  // numbers the corridors going on down from 0 again, so their numbers never run out
+  void renumberChains() {
+    int count = 0;
+    for (int col = 0; col < this.length; col = col + 1) {
+      if (this.up[col] >= 0) {
+        int root = this.chains.find(this.up[col]);
+        if (this.renumber[root] < 0) {
+          this.renumber[root] = count;
+          this.nextLength[count] = this.chainLength[root];
+          this.nextOpen[count] = this.chainOpen[root];
+          count = count + 1;
+        }
+        this.up[col] = this.renumber[root];
+      }
+    }
+    Arrays.fill(this.renumber, 0, this.chainCount, -1);
+    int[] swap = this.chainLength;
+    this.chainLength = this.nextLength;
+    this.nextLength = swap;
+    swap = this.chainOpen;
+    this.chainOpen = this.nextOpen;
+    this.nextOpen = swap;
+    this.chainCount = count;
+    this.chains.clear();
+  }
+
+  // adds a node for the given cell to the tree
+  int newNode(long cell) {
+    this.freeCount = this.freeCount - 1;
+    int node = this.free[this.freeCount];
+    this.nodeCell[node] = cell;
+    this.nodeDegree[node] = 0;
+    this.pending[node] = false;
+    if (cell == this.start) {
+      this.startNode = node;
+    }
+    if (cell == this.goal) {
+      this.goalNode = node;
+    }
+    return node;
+  }
+
+  // connects the two given nodes by the given number of steps
+  void link(int a, int b, long steps) {
+    this.neighbor[4 * a + this.nodeDegree[a]] = b;
+    this.steps[4 * a + this.nodeDegree[a]] = steps;
+    this.nodeDegree[a] = this.nodeDegree[a] + 1;
+    this.neighbor[4 * b + this.nodeDegree[b]] = a;
+    this.steps[4 * b + this.nodeDegree[b]] = steps;
+    this.nodeDegree[b] = this.nodeDegree[b] + 1;
+  }
+
+  // takes the given node out of the other node's neighbors
+  void unlinkFrom(int node, int other) {
+    int last = 4 * node + this.nodeDegree[node] - 1;
+    for (int i = 4 * node; i <= last; i = i + 1) {
+      if (this.neighbor[i] == other) {
+        this.neighbor[i] = this.neighbor[last];
+        this.steps[i] = this.steps[last];
+        this.nodeDegree[node] = this.nodeDegree[node] - 1;
+        return;
+      }
+    }
+  }
+
+  // drops the nodes in the first count places of work that are dead ends, and bridges the
+  // ones with two neighbors, unless they're the start, the goal or above a passage down
+  void prune(int count) {
+    while (count > 0) {
+      count = count - 1;
+      int node = this.work[count];
+      long cell = this.nodeCell[node];
+      if (cell < 0 || this.pending[node] || cell == this.start || cell == this.goal
+          || this.nodeDegree[node] > 2) {
+        continue;
+      }
+      if (this.nodeDegree[node] == 1) {
+        int other = this.neighbor[4 * node];
+        this.unlinkFrom(other, node);
+        this.work[count] = other;
+        count = count + 1;
+      }
+      else if (this.nodeDegree[node] == 2) {
+        int a = this.neighbor[4 * node];
+        int b = this.neighbor[4 * node + 1];
+        long bridged = this.steps[4 * node] + this.steps[4 * node + 1];
+        this.unlinkFrom(a, node);
+        this.unlinkFrom(b, node);
+        if (a != b) {
+          this.link(a, b, bridged);
+        }
+        else {
+          // a loop, which a perfect maze doesn't have
+          this.work[count] = a;
+          count = count + 1;
+        }
+      }
+      this.nodeCell[node] = -1;
+      this.free[this.freeCount] = node;
+      this.freeCount = this.freeCount + 1;
+    }
+  }
+
+  // gets the number of cells
+  long cells() {
+    return (long) this.length * this.height;
+  }
+
+  // gets the number of cells with only one open side
+  long deadEnds() {
+    return this.degrees[1];
+  }
+
+  // gets the number of cells with three or four open sides
+  long junctions() {
+    return this.degrees[3] + this.degrees[4];
+  }
+
+  // gets the number of cells on the way from the start to the goal, counting both, or 0 if
+  // there's no way or not every row has been seen
+  long solutionCells() {
+    if (this.rows < this.height) {
+      return 0;
+    }
+    if (this.start == this.goal) {
+      return 1;
+    }
+    for (int i = 0; i < this.nodeDegree[this.startNode]; i = i + 1) {
+      if (this.neighbor[4 * this.startNode + i] == this.goalNode) {
+        return this.steps[4 * this.startNode + i] + 1;
+      }
+    }
+    return 0;
+  }
+
+  // gets how hard the maze is, from 0 to 1: the share of cells off the way to the goal,
+  // which a solver can wander into
+  double difficulty() {
+    return 1 - (double) this.solutionCells() / this.cells();
+  }
+
+  // prints every number worked out
+  void report(PrintStream out) {
+    out.println(String.format("cells %d, dead ends %d, junctions %d", this.cells(),
+        this.deadEnds(), this.junctions()));
+    out.println(String.format("open sides 0..4: %s", Arrays.toString(this.degrees)));
+    out.println(String.format("corridors %d, mean %.2f steps, p50 %d, p99 %d, longest %d",
+        this.corridors.count(), this.corridors.mean(), this.corridors.percentile(50),
+        this.corridors.percentile(99), this.corridors.max()));
+    out.println(String.format("solution %d cells, difficulty %.4f", this.solutionCells(),
+        this.difficulty()));
+  }
+
+  // generates a seeded maze row by row and analyzes it as it comes, never holding more than
+  // a few rows, and writes it to the given file too if there is one
+  // run it with: java MazeAnalytics LENGTHxHEIGHT SEED [FILE]
+  public static void main(String[] args) throws IOException {
+    String[] size = args[0].split("x");
+    int length = Integer.parseInt(size[0]);
+    int height = Integer.parseInt(size[1]);
+    long seed = Long.parseLong(args[1]);
+    MazeAnalytics analytics = new MazeAnalytics(length, height);
+    long started = System.nanoTime();
+    if (args.length > 2) {
+      MazeFile.generate(Paths.get(args[2]), length, height, seed, MazeFile.NO_BIAS, analytics);
+    }
+    else {
+      new EllerGenerator(length, height, new Random(seed)).generate(analytics);
+    }
+    analytics.report(System.out);
+    System.out.println(String.format("%.1f ns per cell",
+        (System.nanoTime() - started) / (double) analytics.cells()));
+  }
+}
+
+// MazeFile reads and writes mazes in a compact binary format: a header of HEADER_BYTES
+// (magic number, version, length, height, seed, bias) and then every row packed by
+// ChannelRowSink, 2 bits per cell for the right and bottom walls
+class MazeFile {
+  // "MAZE" in ASCII
+  static final int MAGIC = 0x4D415A45;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 32;
+  static final int NO_BIAS = 0;
+  static final int HORIZONTAL_BIAS = 1;
+  static final int VERTICAL_BIAS = 2;
+
+  // writes the given maze to the given file
+  static void write(Path path, MazeWalls maze, long seed, int bias) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeHeader(channel, maze.length(), maze.height(), seed, bias);
+      maze.emitRows(new ChannelRowSink(channel, maze.length()));
+    }
+  }
+
+  // generates a maze row by row straight into the given file, without ever holding
+  // more than a row of it
+  static void generate(Path path, int length, int height, long seed, int bias)
+      throws IOException {
+    generate(path, length, height, seed, bias, (row, walls) -> { });
+  }
+
+  // generates a maze row by row straight into the given file, handing each row to the
+  // given sink too once it's written
+  static void generate(Path path, int length, int height, long seed, int bias, RowSink also)
+      throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      writeHeader(channel, length, height, seed, bias);
+      ChannelRowSink file = new ChannelRowSink(channel, length);
+      new EllerGenerator(length, height, new Random(seed), bias == HORIZONTAL_BIAS,
+          bias == VERTICAL_BIAS).generate((row, walls) -> {
+            file.acceptRow(row, walls);
+            also.acceptRow(row, walls);
+          });
+    }
+  }
+
+  // writes the header to the start of the given channel
+  static void writeHeader(FileChannel channel, int length, int height, long seed, int bias)
+      throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    header.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(height).putLong(seed)
+        .putInt(bias);
+    header.clear();
+    while (header.hasRemaining()) {
+      channel.write(header);
+    }
+  }
+
+  // maps the given file into memory so its walls can be read without loading it
+  static MappedMaze open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        // keeps reading until the header is full or the file ends
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new IOException(path + " is not a maze file");
+      }
+      if (header.getInt() != VERSION) {
+        throw new IOException(path + " was written by a different version");
+      }
+      int length = header.getInt();
+      int height = header.getInt();
+      long seed = header.getLong();
+      int bias = header.getInt();
+      int rowBytes = ChannelRowSink.rowBytes(length);
+      if (length <= 0 || height <= 0
+          || channel.size() < HEADER_BYTES + (long) rowBytes * height) {
+        throw new IOException(path + " is cut short");
+      }
+      // cells are numbered with ints, so a bigger maze can be generated and analyzed as it
+      // streams by, but not opened
+      if ((long) length * height > Integer.MAX_VALUE) {
+        throw new IOException(path + " has more cells than can be numbered");
+      }
+      // each mapping holds whole rows and is at most Integer.MAX_VALUE bytes
+      int rowsPerChunk = Math.max(1, Integer.MAX_VALUE / rowBytes);
+      MappedByteBuffer[] chunks = new MappedByteBuffer[(height - 1) / rowsPerChunk + 1];
+      for (int i = 0; i < chunks.length; i = i + 1) {
+        int rows = Math.min(rowsPerChunk, height - i * rowsPerChunk);
+        chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+            HEADER_BYTES + (long) i * rowsPerChunk * rowBytes, (long) rows * rowBytes);
+      }
+      return new MappedMaze(length, height, seed, bias, rowsPerChunk, chunks);
+    }
+  }
+}
+
+// MappedMaze answers wall queries straight from a memory-mapped maze file, so opening
+// even a very big maze costs next to nothing and several processes can share the file
+class MappedMaze implements MazeWalls {
+  int length;
+  int height;
+  long seed;
+  int bias;
+  int rowBytes;
+  int rowsPerChunk;
+  MappedByteBuffer[] chunks;
+
+  MappedMaze(int length, int height, long seed, int bias, int rowsPerChunk,
+      MappedByteBuffer[] chunks) {
+    this.length = length;
+    this.height = height;
+    this.seed = seed;
+    this.bias = bias;
+    this.rowBytes = ChannelRowSink.rowBytes(length);
+    this.rowsPerChunk = rowsPerChunk;
+    this.chunks = chunks;
+  }
+
+  public int length() {
+    return this.length;
+  }
+
+  public int height() {
+    return this.height;
+  }
+
+  // gets the packed bits of the cell in the given column and row: 1 for a wall on the
+  // right, 2 for a wall below
+  int bits(int col, int row) {
+    MappedByteBuffer chunk = this.chunks[row / this.rowsPerChunk];
+    byte packed = chunk.get((row % this.rowsPerChunk) * this.rowBytes + col / 4);
+    return (packed >> (2 * (col % 4))) & 3;
+  }
+
+  // is the given side of the cell in the given column and row walled off?
+  boolean hasWall(int col, int row, byte side) {
+    if (side == MazeGrid.RIGHT) {
+      return col == this.length - 1 || (this.bits(col, row) & 1) != 0;
+    }
+    else if (side == MazeGrid.BOTTOM) {
+      return row == this.height - 1 || (this.bits(col, row) & 2) != 0;
+    }
+    else if (side == MazeGrid.LEFT) {
+      return col == 0 || (this.bits(col - 1, row) & 1) != 0;
+    }
+    else {
+      return row == 0 || (this.bits(col, row - 1) & 2) != 0;
+    }
+  }
+
+  public boolean hasWall(int cell, byte side) {
+    return this.hasWall(cell % this.length, cell / this.length, side);
+  }
+}
+
+// PathIndex answers distance and path queries between any two cells of a perfect maze,
+// where there is exactly one path between each pair, without searching
+// it roots the maze's tree at one cell and keeps each cell's depth and its ancestors 1, 2, 4,
+// ... steps up, so the lowest common ancestor of two cells takes O(log n) steps to find
+// in a maze with loops the paths still connect, but they go through the tree and may be long
+class PathIndex {
+  // steps from the root to each cell, or -1 if the cell can't be reached from the root
+  int[] depth;
+  // up[k][cell] is the ancestor 2^k steps above cell, or the root if there isn't one
+  int[][] up;
+
+  // builds the index with a breadth-first walk out from the given root
+  PathIndex(MazeWalls maze, int root) {
+    int cells = maze.cells();
+    this.depth = new int[cells];
+    Arrays.fill(this.depth, -1);
+    int[] parent = new int[cells];
+    for (int cell = 0; cell < cells; cell = cell + 1) {
+      parent[cell] = cell;
+    }
+    int[] queue = new int[cells];
+    int[] next = new int[4];
+    queue[0] = root;
+    this.depth[root] = 0;
+    int head = 0;
+    int tail = 1;
+    int deepest = 0;
+    while (head < tail) {
+      int cell = queue[head];
+      head = head + 1;
+      int found = maze.openNeighbors(cell, next);
+      for (int i = 0; i < found; i = i + 1) {
+        if (this.depth[next[i]] < 0) {
+          this.depth[next[i]] = this.depth[cell] + 1;
+          parent[next[i]] = cell;
+          queue[tail] = next[i];
+          tail = tail + 1;
+          deepest = this.depth[next[i]];
+        }
+      }
+    }
+    int levels = 1;
+    while ((1 << levels) <= deepest) {
+      levels = levels + 1;
+    }
+    this.up = new int[levels][];
+    this.up[0] = parent;
+    for (int k = 1; k < levels; k = k + 1) {
+      int[] half = this.up[k - 1];
+      int[] level = new int[cells];
+      for (int cell = 0; cell < cells; cell = cell + 1) {
+        level[cell] = half[half[cell]];
+      }
+      this.up[k] = level;
+    }
+  }
+
+  // gets the ancestor the given number of steps above the given cell
+  int ancestor(int cell, int steps) {
+    for (int k = 0; steps > 0; k = k + 1) {
+      if ((steps & 1) != 0) {
+        cell = this.up[k][cell];
+      }
+      steps = steps >>> 1;
+    }
+    return cell;
+  }
+
+  // gets the deepest cell that both given cells are under, where their paths to the root meet
+  int meeting(int a, int b) {
+    if (this.depth[a] < this.depth[b]) {
+      int swap = a;
+      a = b;
+      b = swap;
+    }
+    a = this.ancestor(a, this.depth[a] - this.depth[b]);
+    if (a == b) {
+      return a;
+    }
+    for (int k = this.up.length - 1; k >= 0; k = k - 1) {
+      if (this.up[k][a] != this.up[k][b]) {
+        a = this.up[k][a];
+        b = this.up[k][b];
+      }
+    }
+    return this.up[0][a];
+  }
+
+  // gets the number of steps between the given cells, or -1 if they aren't connected
+  int distance(int a, int b) {
+    if (this.depth[a] < 0 || this.depth[b] < 0) {
+      return -1;
+    }
+    return this.depth[a] + this.depth[b] - 2 * this.depth[this.meeting(a, b)];
+  }
+
+  // gets the cells on the path from a to b, both included, or nothing if they aren't connected
+  int[] path(int a, int b) {
+    int steps = this.distance(a, b);
+    if (steps < 0) {
+      return new int[0];
+    }
+    int meet = this.meeting(a, b);
+    int[] path = new int[steps + 1];
+    int front = 0;
+    while (a != meet) {
+      path[front] = a;
+      front = front + 1;
+      a = this.up[0][a];
+    }
+    path[front] = meet;
+    int back = steps;
+    while (b != meet) {
+      path[back] = b;
+      back = back - 1;
+      b = this.up[0][b];
+    }
+    return path;
+  }
+}
+
+// DistanceField holds how many steps every cell is from the goal, found with one breadth-first
+// walk out from the goal, and colours cells by it from a fixed palette
+// following the distances down from any cell leads to the goal one step at a time
+class DistanceField {
+  // warm near the goal and cool far from it
+  static final Color[] PALETTE = palette(64);
+  MazeWalls maze;
+  int goal;
+  // steps from each cell to the goal, or -1 if the cell can't reach it
+  int[] distance;
+  int farthest;
+  int[] queue;
+  int[] next;
+
+  DistanceField(MazeWalls maze, int goal) {
+    this.distance = new int[maze.cells()];
+    this.queue = new int[maze.cells()];
+    this.next = new int[4];
+    this.compute(maze, goal);
+  }
+
+  // walks out from the given goal of the given maze again, reusing this field's arrays
+  // the maze has to have as many cells as the one this field was made for
+  void compute(MazeWalls maze, int goal) {
+    this.maze = maze;
+    this.goal = goal;
+    Arrays.fill(this.distance, -1);
+    this.distance[goal] = 0;
+    this.queue[0] = goal;
+    int head = 0;
+    int tail = 1;
+    while (head < tail) {
+      int cell = this.queue[head];
+      head = head + 1;
+      int found = maze.openNeighbors(cell, this.next);
+      for (int i = 0; i < found; i = i + 1) {
+        if (this.distance[this.next[i]] < 0) {
+          this.distance[this.next[i]] = this.distance[cell] + 1;
+          this.queue[tail] = this.next[i];
+          tail = tail + 1;
+        }
+      }
+    }
+    this.farthest = this.distance[this.queue[tail - 1]];
+  }
+
+  // gets the neighbour of the given cell that is one step closer to the goal, or the cell
+  // itself if it is the goal or can't reach it
+  int toward(int cell) {
+    return this.toward(cell, this.next);
+  }
+
+  // the same, looking at the neighbours through the given array of four instead of this
+  // field's own, so that many threads can ask at once
+  int toward(int cell, int[] next) {
+    if (this.distance[cell] <= 0) {
+      return cell;
+    }
+    int found = this.maze.openNeighbors(cell, next);
+    for (int i = 0; i < found; i = i + 1) {
+      if (this.distance[next[i]] == this.distance[cell] - 1) {
+        return next[i];
+      }
+    }
+    return cell;
+  }
+
+  // gets the colour of the given cell, white if it can't reach the goal
+  Color colorOf(int cell) {
+    if (this.distance[cell] < 0) {
+      return Color.white;
+    }
+    return PALETTE[(int) ((long) this.distance[cell] * (PALETTE.length - 1)
+        / Math.max(1, this.farthest))];
+  }
+
+  // makes the given number of colours going from red through to blue
+  static Color[] palette(int steps) {
+    Color[] colors = new Color[steps];
+    for (int i = 0; i < steps; i = i + 1) {
+      colors[i] = Color.getHSBColor(0.7f * i / (steps - 1), 0.55f, 1.0f);
+    }
+    return colors;
+  }
+}
+
+// VisitTrace records the order in which a search visited cells, as cell numbers
+class VisitTrace {
+  int[] order;
+  int size;
+
+  VisitTrace(int capacity) {
+    this.order = new int[capacity];
+    this.size = 0;
+  }
+
+  // adds the given cell to the end of this trace
+  void add(int cell) {
+    this.order[this.size] = cell;
+    this.size = this.size + 1;
+  }
+
+  // gets the cell visited in the given position
+  int get(int index) {
+    return this.order[index];
+  }
+
+  // gets the number of cells visited
+  int size() {
+    return this.size;
+  }
+
+  // determines if no cells have been visited
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // determines if the given cell was visited (walks the trace, so it is meant for checks
+  // after the fact; searches keep their own visited bits)
+  boolean contains(int cell) {
+    for (int i = 0; i < this.size; i = i + 1) {
+      if (this.order[i] == cell) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
+
+// MazeSearch holds what every search over a MazeGrid keeps track of, so that a search can
+// be run a few cells at a time, paused, resumed or cancelled, and asked for its path
+abstract class MazeSearch {
+  static final int BREADTH_FIRST = 0;
+  static final int DEPTH_FIRST = 1;
+  static final int A_STAR = 2;
+  static final int BIDIRECTIONAL = 3;
+  // solved by a DeadEndFiller rather than a search, so there's no MazeSearch of this kind
+  static final int DEAD_END_FILL = 4;
+  MazeWalls grid;
+  int start;
+  int goal;
+  // the cell each cell was reached from
+  int[] cameFrom;
+  int[] neighbors;
+  VisitTrace trace;
+  // number of cells taken out of the worklist and expanded
+  int expanded;
+  // most cells waiting to be expanded at once, only kept while metrics are on
+  int frontierPeak;
+  // true once the goal is reached or there is nothing left to search
+  boolean done;
+  // true if the goal was reached
+  boolean found;
+  // true if stepping is on hold
+  boolean paused;
+  // true if the search was given up
+  boolean cancelled;
+
+  MazeSearch(MazeWalls grid, int start, int goal) {
+    this.grid = grid;
+    this.start = start;
+    this.goal = goal;
+    this.cameFrom = new int[grid.cells()];
+    this.cameFrom[start] = start;
+    this.neighbors = new int[4];
+    this.trace = new VisitTrace(grid.cells());
+    this.expanded = 0;
+    this.frontierPeak = 0;
+    this.done = false;
+    this.found = false;
+    this.paused = false;
+    this.cancelled = false;
+  }
+
+  // makes a search of the given kind
+  static MazeSearch of(int kind, MazeWalls grid, int start, int goal) {
+    if (kind == A_STAR) {
+      return new AStarSearch(grid, start, goal);
+    }
+    else if (kind == BIDIRECTIONAL) {
+      return new BidirectionalSearch(grid, start, goal);
+    }
+    else if (kind == DEAD_END_FILL) {
+      throw new IllegalArgumentException("dead-end filling isn't a search");
+    }
+    else {
+      return new GridSearch(grid, kind == BREADTH_FIRST, start, goal);
+    }
+  }
+
+  // gets the kind of search with the given name, as MazeBatch takes them
+  static int kindOf(String name) {
+    if (name.equals("bfs")) {
+      return BREADTH_FIRST;
+    }
+    else if (name.equals("dfs")) {
+      return DEPTH_FIRST;
+    }
+    else if (name.equals("astar")) {
+      return A_STAR;
+    }
+    else if (name.equals("bidirectional")) {
+      return BIDIRECTIONAL;
+    }
+    else if (name.equals("fill")) {
+      return DEAD_END_FILL;
+    }
+    else {
+      throw new IllegalArgumentException("unknown search " + name);
+    }
+  }
+
+  // gets the name of the given kind of search
+  static String nameOf(int kind) {
+    String[] names = new String[] { "bfs", "dfs", "astar", "bidirectional", "fill" };
+    return names[kind];
+  }
+
+  // gets which kind of search this is
+  abstract int kind();
+
+  // gets the number of cells waiting to be expanded
+  abstract int frontierSize();
+
+  // takes up to the given number of cells out of the worklist and expands them
+  // returns true once the search is over
+  abstract boolean step(int expansions);
+
+  // searches from the start until the goal is reached
+  // returns false if the goal can't be reached
+  boolean run() {
+    this.paused = false;
+    this.step(Integer.MAX_VALUE);
+    return this.found;
+  }
+
+  // determines if the search may expand more cells
+  boolean canStep() {
+    return !this.done && !this.paused && !this.cancelled;
+  }
+
+  // records that the given cell was taken out of the worklist
+  void expand(int cell) {
+    this.trace.add(cell);
+    this.expanded = this.expanded + 1;
+    if (MazeMetrics.ENABLED) {
+      // the frontier is biggest just before a cell comes out of it
+      this.frontierPeak = Math.max(this.frontierPeak, this.frontierSize() + 1);
+    }
+  }
+
+  // gets the cells from the start to the goal, or an empty path if the goal wasn't found
+  int[] path() {
+    if (!this.found) {
+      return new int[0];
+    }
+    return this.pathTo(this.goal);
+  }
+
+  // gets the cells from the start to the given cell by following cameFrom back
+  int[] pathTo(int cell) {
+    int length = 1;
+    for (int c = cell; c != this.start; c = this.cameFrom[c]) {
+      length = length + 1;
+    }
+    int[] path = new int[length];
+    for (int i = length - 1; i >= 0; i = i - 1) {
+      path[i] = cell;
+      cell = this.cameFrom[cell];
+    }
+    return path;
+  }
+
+  // puts stepping on hold
+  void pause() {
+    this.paused = true;
+  }
+
+  // lets stepping carry on from where it stopped
+  void resume() {
+    this.paused = false;
+  }
+
+  // gives up on this search; it can't be resumed
+  void cancel() {
+    this.cancelled = true;
+  }
+}
+
+// GridSearch runs a breadth-first or depth-first search over a MazeGrid
+// the worklist is an int[] used as a ring buffer for breadth-first search and as a stack
+// for depth-first search, and cells are marked visited when they are added to it
+class GridSearch extends MazeSearch {
+  boolean breadthFirst;
+  boolean[] visited;
+  int[] worklist;
+  // next cell to take out of the worklist, and number of cells in it
+  int head;
+  int count;
+
+  GridSearch(MazeWalls grid, boolean breadthFirst, int start, int goal) {
+    super(grid, start, goal);
+    this.breadthFirst = breadthFirst;
+    this.visited = new boolean[grid.cells()];
+    this.worklist = new int[grid.cells()];
+    this.head = 0;
+    this.count = 1;
+    this.worklist[0] = start;
+    this.visited[start] = true;
+  }
+
+  // gets which kind of search this is
+  int kind() {
+    if (this.breadthFirst) {
+      return BREADTH_FIRST;
+    }
+    else {
+      return DEPTH_FIRST;
+    }
+  }
+
+  // gets the number of cells waiting to be expanded
+  int frontierSize() {
+    return this.count;
+  }
+
+  // takes up to the given number of cells out of the worklist and expands them
+  // returns true once the search is over
+  boolean step(int expansions) {
+    int capacity = this.worklist.length;
+    while (this.canStep() && expansions > 0) {
+      if (this.count == 0) {
+        this.done = true;
+        return true;
+      }
+      int next;
+      if (this.breadthFirst) {
+        next = this.worklist[this.head];
+        this.head = (this.head + 1) % capacity;
+      }
+      else {
+        next = this.worklist[this.count - 1];
+      }
+      this.count = this.count - 1;
+      expansions = expansions - 1;
+      this.expand(next);
+      if (next == this.goal) {
+        this.found = true;
+        this.done = true;
+        return true;
+      }
+      int found = this.grid.openNeighbors(next, this.neighbors);
+      for (int i = 0; i < found; i = i + 1) {
+        int cell = this.neighbors[i];
+        if (!this.visited[cell]) {
+          this.visited[cell] = true;
+          this.cameFrom[cell] = next;
+          if (this.breadthFirst) {
+            this.worklist[(this.head + this.count) % capacity] = cell;
+          }
+          else {
+            this.worklist[this.count] = cell;
+          }
+          this.count = this.count + 1;
+        }
+      }
+    }
+    return this.done || this.cancelled;
+  }
+}
+
+// AStarSearch expands cells in order of steps taken plus Manhattan distance to the goal
+// the worklist is a binary heap of cell numbers, with each cell's place in the heap kept
+// so its priority can be lowered when a shorter way to it is found
+class AStarSearch extends MazeSearch {
+  // steps from the start to each cell found so far
+  int[] steps;
+  int[] heap;
+  // where each cell is in the heap, -1 if it isn't in it
+  int[] place;
+  int size;
+  boolean[] closed;
+
+  AStarSearch(MazeWalls grid, int start, int goal) {
+    super(grid, start, goal);
+    this.steps = new int[grid.cells()];
+    this.heap = new int[grid.cells()];
+    this.place = new int[grid.cells()];
+    Arrays.fill(this.place, -1);
+    this.closed = new boolean[grid.cells()];
+    this.size = 0;
+    this.push(start);
+  }
+
+  // gets which kind of search this is
+  int kind() {
+    return A_STAR;
+  }
+
+  // gets the number of cells waiting to be expanded
+  int frontierSize() {
+    return this.size;
+  }
+
+  // gets the Manhattan distance from the given cell to the goal
+  int estimate(int cell) {
+    int length = this.grid.length();
+    return Math.abs(cell % length - this.goal % length)
+        + Math.abs(cell / length - this.goal / length);
+  }
+
+  // determines if cell a should come out of the heap before cell b
+  // ties go to the cell closer to the goal
+  boolean before(int a, int b) {
+    int estimateA = this.estimate(a);
+    int estimateB = this.estimate(b);
+    int totalA = this.steps[a] + estimateA;
+    int totalB = this.steps[b] + estimateB;
+    return totalA < totalB || (totalA == totalB && estimateA < estimateB);
+  }
+
+  // takes up to the given number of cells out of the heap and expands them
+  // returns true once the search is over
+  boolean step(int expansions) {
+    while (this.canStep() && expansions > 0) {
+      if (this.size == 0) {
+        this.done = true;
+        return true;
+      }
+      int next = this.pop();
+      this.closed[next] = true;
+      expansions = expansions - 1;
+      this.expand(next);
+      if (next == this.goal) {
+        this.found = true;
+        this.done = true;
+        return true;
+      }
+      int found = this.grid.openNeighbors(next, this.neighbors);
+      for (int i = 0; i < found; i = i + 1) {
+        int cell = this.neighbors[i];
+        int steps = this.steps[next] + 1;
+        if (!this.closed[cell] && (this.place[cell] < 0 || steps < this.steps[cell])) {
+          this.steps[cell] = steps;
+          this.cameFrom[cell] = next;
+          if (this.place[cell] < 0) {
+            this.push(cell);
+          }
+          else {
+            this.siftUp(this.place[cell]);
+          }
+        }
+      }
+    }
+    return this.done || this.cancelled;
+  }
+
+  // adds the given cell to the heap
+  void push(int cell) {
+    this.heap[this.size] = cell;
+    this.place[cell] = this.size;
+    this.size = this.size + 1;
+    this.siftUp(this.size - 1);
+  }
+
+  // takes the first cell out of the heap
+  int pop() {
+    int first = this.heap[0];
+    this.size = this.size - 1;
+    this.place[first] = -1;
+    if (this.size > 0) {
+      this.heap[0] = this.heap[this.size];
+      this.place[this.heap[0]] = 0;
+      this.siftDown(0);
+    }
+    return first;
+  }
+
+  // moves the cell at the given place up until its parent comes before it
+  void siftUp(int at) {
+    int cell = this.heap[at];
+    while (at > 0) {
+      int parent = (at - 1) / 2;
+      if (!this.before(cell, this.heap[parent])) {
+        break;
+      }
+      this.heap[at] = this.heap[parent];
+      this.place[this.heap[at]] = at;
+      at = parent;
+    }
+    this.heap[at] = cell;
+    this.place[cell] = at;
+  }
+
+  // moves the cell at the given place down until it comes before its children
+  void siftDown(int at) {
+    int cell = this.heap[at];
+    while (2 * at + 1 < this.size) {
+      int child = 2 * at + 1;
+      if (child + 1 < this.size && this.before(this.heap[child + 1], this.heap[child])) {
+        child = child + 1;
+      }
+      if (!this.before(this.heap[child], cell)) {
+        break;
+      }
+      this.heap[at] = this.heap[child];
+      this.place[this.heap[at]] = at;
+      at = child;
+    }
+    this.heap[at] = cell;
+    this.place[cell] = at;
+  }
+}
+
+// BidirectionalSearch runs one breadth-first search from the start and one from the goal,
+// always growing the side with the smaller frontier, and stops when they meet
+// both sides share one int[] queue: the start's side fills it from the front and the
+// goal's side from the back
+class BidirectionalSearch extends MazeSearch {
+  static final byte FROM_START = 1;
+  static final byte FROM_GOAL = 2;
+  // which side reached each cell, 0 if neither has
+  byte[] side;
+  int[] queue;
+  // next cell to take and number of cells queued, for each side
+  int startHead;
+  int startCount;
+  int goalHead;
+  int goalCount;
+  // the two neighboring cells where the sides met
+  int meetStart;
+  int meetGoal;
+
+  BidirectionalSearch(MazeWalls grid, int start, int goal) {
+    super(grid, start, goal);
+    this.side = new byte[grid.cells()];
+    this.queue = new int[grid.cells()];
+    this.cameFrom[goal] = goal;
+    this.side[start] = FROM_START;
+    this.queue[0] = start;
+    this.startHead = 0;
+    this.startCount = 1;
+    this.goalHead = grid.cells() - 1;
+    this.goalCount = 0;
+    if (goal != start) {
+      this.side[goal] = FROM_GOAL;
+      this.queue[this.goalHead] = goal;
+      this.goalCount = 1;
+    }
+    this.meetStart = start;
+    this.meetGoal = start;
+  }
+
+  // gets which kind of search this is
+  int kind() {
+    return BIDIRECTIONAL;
+  }
+
+  // gets the number of cells waiting to be expanded, on both sides
+  int frontierSize() {
+    return this.startCount + this.goalCount;
+  }
+
+  // takes up to the given number of cells out of the queues and expands them
+  // returns true once the search is over
+  boolean step(int expansions) {
+    while (this.canStep() && expansions > 0) {
+      if (this.start == this.goal) {
+        this.expand(this.start);
+        this.found = true;
+        this.done = true;
+        return true;
+      }
+      if (this.startCount == 0 || this.goalCount == 0) {
+        this.done = true;
+        return true;
+      }
+      expansions = expansions - 1;
+      boolean fromStart = this.startCount <= this.goalCount;
+      int next;
+      if (fromStart) {
+        next = this.queue[this.startHead];
+        this.startHead = this.startHead + 1;
+        this.startCount = this.startCount - 1;
+      }
+      else {
+        next = this.queue[this.goalHead];
+        this.goalHead = this.goalHead - 1;
+        this.goalCount = this.goalCount - 1;
+      }
+      this.expand(next);
+      byte mine = this.side[next];
+      int found = this.grid.openNeighbors(next, this.neighbors);
+      for (int i = 0; i < found; i = i + 1) {
+        int cell = this.neighbors[i];
+        if (this.side[cell] == 0) {
+          this.side[cell] = mine;
+          this.cameFrom[cell] = next;
+          if (fromStart) {
+            this.queue[this.startHead + this.startCount] = cell;
+            this.startCount = this.startCount + 1;
+          }
+          else {
+            this.queue[this.goalHead - this.goalCount] = cell;
+            this.goalCount = this.goalCount + 1;
+          }
+        }
+        else if (this.side[cell] != mine) {
+          if (fromStart) {
+            this.meetStart = next;
+            this.meetGoal = cell;
+          }
+          else {
+            this.meetStart = cell;
+            this.meetGoal = next;
+          }
+          this.found = true;
+          this.done = true;
+          return true;
+        }
+      }
+    }
+    return this.done || this.cancelled;
+  }
+
+  // gets the cells from the start to the goal, joining the two sides where they met
+  int[] path() {
+    if (!this.found) {
+      return new int[0];
+    }
+    if (this.start == this.goal) {
+      return new int[] { this.start };
+    }
+    int[] first = this.pathTo(this.meetStart);
+    int length = first.length;
+    for (int c = this.meetGoal; c != this.goal; c = this.cameFrom[c]) {
+      length = length + 1;
+    }
+    int[] path = Arrays.copyOf(first, length + 1);
+    int i = first.length;
+    for (int c = this.meetGoal; c != this.goal; c = this.cameFrom[c]) {
+      path[i] = c;
+      i = i + 1;
+    }
+    path[i] = this.goal;
+    return path;
+  }
+}
+
+// ParallelBreadthFirst searches a maze breadth-first a whole level at a time, splitting each
+// level across a fork-join pool, for solving mazes of hundreds of millions of cells offline
+// cells are claimed through an atomic visited bitmap, and each chunk of a level writes the
+// cells it reached after those of the chunks before it, so the next level comes out in the
+// order GridSearch would queue it; on a perfect maze, where every cell is reached from just
+// one other, the order cells are reached in and the cell each came from match GridSearch
+// exactly, and with loops the levels still match but a tie may go to a different cell
+// run it with: java ParallelBreadthFirst LENGTHxHEIGHT SEED [THREADS]
+class ParallelBreadthFirst {
+  // cells of a level handled by one task; smaller levels stay on the calling thread
+  // a perfect maze's levels are narrow, around a thousand cells at 10^8 cells, so this is small
+  static final int GRAIN = 1 << 10;
+  MazeWalls grid;
+  int start;
+  int goal;
+  ForkJoinPool pool;
+  int grain;
+  // the cells in the order they were reached, level by level
+  int[] order;
+  // the cell each cell was reached from
+  int[] cameFrom;
+  // one bit per cell, set once the cell has been reached
+  AtomicLongArray visited;
+  // number of cells each chunk of a level reached, then where they go in order
+  int[] reached;
+  // number of cells reached so far
+  int size;
+  // number of levels expanded
+  int levels;
+  // where the goal is in order, or -1 if it hasn't been reached
+  int goalAt;
+  // number of cells taken out of order up to and including the goal, as GridSearch counts
+  int expanded;
+  boolean found;
+
+  ParallelBreadthFirst(MazeWalls grid, int start, int goal) {
+    this(grid, start, goal, ForkJoinPool.commonPool());
+  }
+
+  ParallelBreadthFirst(MazeWalls grid, int start, int goal, ForkJoinPool pool) {
+    int cells = grid.cells();
+    this.grid = grid;
+    this.start = start;
+    this.goal = goal;
+    this.pool = pool;
+    this.grain = GRAIN;
+    this.order = new int[cells];
+    this.cameFrom = new int[cells];
+    this.visited = new AtomicLongArray((cells + 63) / 64);
+    this.reached = new int[0];
+    this.size = 0;
+    this.levels = 0;
+    this.goalAt = -1;
+    this.expanded = 0;
+    this.found = false;
+  }
+
+  // searches from the start a level at a time until the goal's level has been reached
+  // returns false if the goal can't be reached
+  boolean run() {
+    this.claim(this.start);
+    this.cameFrom[this.start] = this.start;
+    this.order[0] = this.start;
+    this.size = 1;
+    if (this.start == this.goal) {
+      this.goalAt = 0;
+    }
+    int head = 0;
+    while (this.goalAt < 0 && head < this.size) {
+      int end = this.size;
+      this.expandLevel(head, end);
+      head = end;
+      this.levels = this.levels + 1;
+    }
+    this.found = this.goalAt >= 0;
+    if (this.found) {
+      this.expanded = this.goalAt + 1;
+    }
+    else {
+      this.expanded = this.size;
+    }
+    return this.found;
+  }
+
+  // marks the given cell reached, returning false if it already was
+  boolean claim(int cell) {
+    int word = cell >>> 6;
+    long bit = 1L << cell;
+    long bits = this.visited.get(word);
+    while ((bits & bit) == 0) {
+      if (this.visited.compareAndSet(word, bits, bits | bit)) {
+        return true;
+      }
+      bits = this.visited.get(word);
+    }
+    return false;
+  }
+
+  // determines if the given cell has been reached
+  boolean isVisited(int cell) {
+    return (this.visited.get(cell >>> 6) & (1L << cell)) != 0;
+  }
+
+  // reaches every cell next to the cells in order from up to (but not including) to,
+  // adding them to the end of order
+  void expandLevel(int from, int to) {
+    int grain = this.grain;
+    int chunks = (to - from + grain - 1) / grain;
+    if (this.reached.length < chunks) {
+      this.reached = new int[Math.max(chunks, 2 * this.reached.length)];
+    }
+    // claims the cells each chunk reaches first and counts them
+    this.forChunks(chunks, (first, last) -> {
+      int[] neighbors = new int[4];
+      for (int chunk = first; chunk < last; chunk = chunk + 1) {
+        int count = 0;
+        int end = Math.min(from + (chunk + 1) * grain, to);
+        for (int i = from + chunk * grain; i < end; i = i + 1) {
+          int cell = this.order[i];
+          int found = this.grid.openNeighbors(cell, neighbors);
+          for (int j = 0; j < found; j = j + 1) {
+            if (this.claim(neighbors[j])) {
+              this.cameFrom[neighbors[j]] = cell;
+              count = count + 1;
+            }
+          }
+        }
+        this.reached[chunk] = count;
+      }
+    });
+    int at = to;
+    for (int chunk = 0; chunk < chunks; chunk = chunk + 1) {
+      int count = this.reached[chunk];
+      this.reached[chunk] = at;
+      at = at + count;
+    }
+    this.size = at;
+    // writes each chunk's cells out again, in the order they were claimed
+    this.forChunks(chunks, (first, last) -> {
+      int[] neighbors = new int[4];
+      for (int chunk = first; chunk < last; chunk = chunk + 1) {
+        int write = this.reached[chunk];
+        int end = Math.min(from + (chunk + 1) * grain, to);
+        for (int i = from + chunk * grain; i < end; i = i + 1) {
+          int cell = this.order[i];
+          int found = this.grid.openNeighbors(cell, neighbors);
+          for (int j = 0; j < found; j = j + 1) {
+            // cells reached on earlier levels came from cells before this one
+            if (this.cameFrom[neighbors[j]] == cell) {
+              this.order[write] = neighbors[j];
+              if (neighbors[j] == this.goal) {
+                this.goalAt = write;
+              }
+              write = write + 1;
+            }
+          }
+        }
+      }
+    });
+  }
+
+  // runs the given body over the given number of chunks, on the pool if there's more than one
+  void forChunks(int chunks, RangeBody body) {
+    if (chunks == 1) {
+      body.run(0, 1);
+    }
+    else {
+      RangeTask.forRange(this.pool, chunks, 1, body);
+    }
+  }
+
+  // gets the cells from the start to the goal, or an empty path if the goal wasn't found
+  int[] path() {
+    if (!this.found) {
+      return new int[0];
+    }
+    int length = 1;
+    for (int c = this.goal; c != this.start; c = this.cameFrom[c]) {
+      length = length + 1;
+    }
+    int[] path = new int[length];
+    int c = this.goal;
+    for (int i = length - 1; i >= 0; i = i - 1) {
+      path[i] = c;
+      c = this.cameFrom[c];
+    }
+    return path;
+  }
+
+  // generates a seeded maze of the given size into a file, then solves it from corner to
+  // corner with GridSearch and with this, checking they agree and printing how fast each was
+  public static void main(String[] args) throws IOException {
+    String[] size = args[0].split("x");
+    int length = Integer.parseInt(size[0]);
+    int height = Integer.parseInt(size[1]);
+    long seed = Long.parseLong(args[1]);
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    if (args.length > 2) {
+      pool = new ForkJoinPool(Integer.parseInt(args[2]));
+    }
+    Path file = Files.createTempFile("maze", ".bin");
+    try {
+      MazeFile.generate(file, length, height, seed, MazeFile.NO_BIAS);
+      MazeWalls maze = MazeFile.open(file);
+      int goal = maze.cells() - 1;
+      long started = System.nanoTime();
+      MazeSearch sequential = MazeSearch.of(MazeSearch.BREADTH_FIRST, maze, 0, goal);
+      sequential.run();
+      long sequentialNanos = System.nanoTime() - started;
+      int[] sequentialPath = sequential.path();
+      int sequentialExpanded = sequential.expanded;
+      sequential = null;
+      started = System.nanoTime();
+      ParallelBreadthFirst parallel = new ParallelBreadthFirst(maze, 0, goal, pool);
+      parallel.run();
+      long parallelNanos = System.nanoTime() - started;
+      System.out.println(String.format("%-12s %12s %14s", "search", "ms", "cells/s"));
+      System.out.println(String.format("%-12s %12.1f %14.0f", "sequential",
+          sequentialNanos / 1e6, sequentialExpanded * 1e9 / sequentialNanos));
+      System.out.println(String.format("%-12s %12.1f %14.0f", "parallel",
+          parallelNanos / 1e6, parallel.expanded * 1e9 / parallelNanos));
+      System.out.println(String.format("%d threads, %d levels, speedup x%.2f, same path: %b",
+          pool.getParallelism(), parallel.levels, (double) sequentialNanos / parallelNanos,
+          parallel.expanded == sequentialExpanded
+              && Arrays.equals(parallel.path(), sequentialPath)));
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+}
+
+// DeadEndFiller solves a perfect maze by filling in dead ends until only the way from the
+// start to the goal is left, with no worklist at all
+// the walls are packed into rows of long words, 64 cells to a word, so a word's worth of
+// cells is checked and filled with a handful of bitwise operations; rows are swept down and
+// back up until nothing changes, only looking again at words with something new next to them
+// the rows are cut into bands, and every other band is filled at once on a fork-join pool,
+// so no two bands being filled ever touch the same rows
+// every generator here makes perfect mazes; on a maze with loops the loops are never filled,
+// and the path is only found if the cells left make a single corridor
+class DeadEndFiller {
+  // rows in a band
+  static final int BAND_ROWS = 64;
+  int length;
+  int height;
+  // words in a row
+  int words;
+  int start;
+  int goal;
+  // null to fill every band on the calling thread
+  ForkJoinPool pool;
+  // a bit for each cell, set if its right side is open, word w of row r at r * words + w
+  long[] right;
+  // set if a cell's bottom side is open
+  long[] down;
+  // set if a cell hasn't been filled in
+  long[] open;
+  // longs of dirty bits in a row
+  int masks;
+  // a bit for each word, set if it may have new dead ends since it or a word next to it
+  // changed, word w of row r at bit w % 64 of r * masks + w / 64
+  long[] dirty;
+  // number of times every band was filled
+  int passes;
+  int filled;
+  boolean found;
+
+  DeadEndFiller(MazeWalls grid, int start, int goal) {
+    this(grid, start, goal, ForkJoinPool.commonPool());
+  }
+
+  DeadEndFiller(MazeWalls grid, int start, int goal, ForkJoinPool pool) {
+    this.length = grid.length();
+    this.height = grid.height();
+    this.words = (this.length + 63) / 64;
+    this.start = start;
+    this.goal = goal;
+    this.pool = pool;
+    this.right = new long[this.height * this.words];
+    this.down = new long[this.height * this.words];
+    this.open = new long[this.height * this.words];
+    this.masks = (this.words + 63) / 64;
+    this.dirty = new long[this.height * this.masks];
+    this.passes = 0;
+    this.filled = 0;
+    this.found = false;
+    this.forBands(0, 1, (from, to) -> {
+      for (int band = from; band < to; band = band + 1) {
+        for (int row = band * BAND_ROWS; row < this.bandEnd(band); row = row + 1) {
+          this.pack(grid, row);
+        }
+      }
+    });
+  }
+
+  // packs the walls of the given row into bits, and marks all its cells open
+  void pack(MazeWalls grid, int row) {
+    for (int w = 0; w < this.words; w = w + 1) {
+      long right = 0;
+      long down = 0;
+      long open = 0;
+      int end = Math.min(64 * w + 64, this.length);
+      for (int col = 64 * w; col < end; col = col + 1) {
+        int cell = row * this.length + col;
+        long bit = 1L << col;
+        if (!grid.hasWall(cell, MazeGrid.RIGHT)) {
+          right = right | bit;
+        }
+        if (!grid.hasWall(cell, MazeGrid.BOTTOM)) {
+          down = down | bit;
+        }
+        open = open | bit;
+      }
+      this.right[row * this.words + w] = right;
+      this.down[row * this.words + w] = down;
+      this.open[row * this.words + w] = open;
+      this.markDirty(row, w);
+    }
+  }
+
+  // gets the row after the last row of the given band
+  int bandEnd(int band) {
+    return Math.min((band + 1) * BAND_ROWS, this.height);
+  }
+
+  // runs the given body over every other band, starting with the given one, on the pool if
+  // there's more than one of them and there is a pool
+  void forBands(int first, int step, RangeBody body) {
+    int bands = (this.height + BAND_ROWS - 1) / BAND_ROWS;
+    int count = (bands - first + step - 1) / step;
+    RangeBody every = (from, to) -> {
+      for (int i = from; i < to; i = i + 1) {
+        body.run(first + i * step, first + i * step + 1);
+      }
+    };
+    if (count == 1 || this.pool == null) {
+      every.run(0, count);
+    }
+    else {
+      RangeTask.forRange(this.pool, count, 1, every);
+    }
+  }
+
+  // fills dead ends until only the cells between the start and the goal are left
+  // returns false if the goal can't be reached
+  boolean run() {
+    int bands = (this.height + BAND_ROWS - 1) / BAND_ROWS;
+    boolean changed = true;
+    while (changed) {
+      this.forBands(0, 2, (from, to) -> this.fillBand(from));
+      if (bands > 1) {
+        this.forBands(1, 2, (from, to) -> this.fillBand(from));
+      }
+      this.passes = this.passes + 1;
+      changed = false;
+      for (int row = 0; row < this.height && !changed; row = row + 1) {
+        changed = this.isDirty(row);
+      }
+    }
+    int left = 0;
+    for (long word : this.open) {
+      left = left + Long.bitCount(word);
+    }
+    this.filled = this.length * this.height - left;
+    this.found = this.path().length > 0;
+    return this.found;
+  }
+
+  // marks the given word of the given row dirty
+  void markDirty(int row, int w) {
+    int i = row * this.masks + w / 64;
+    this.dirty[i] = this.dirty[i] | (1L << w);
+  }
+
+  // determines if any word of the given row is dirty
+  boolean isDirty(int row) {
+    for (int m = 0; m < this.masks; m = m + 1) {
+      if (this.dirty[row * this.masks + m] != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // fills the given band's rows, sweeping down and up until none of them are dirty
+  // words in the rows next to the band may be marked dirty, but only this band's rows change
+  void fillBand(int band) {
+    int first = band * BAND_ROWS;
+    int end = this.bandEnd(band);
+    boolean dirty = true;
+    while (dirty) {
+      for (int row = first; row < end; row = row + 1) {
+        this.fillRow(row);
+      }
+      for (int row = end - 1; row >= first; row = row - 1) {
+        this.fillRow(row);
+      }
+      dirty = false;
+      for (int row = first; row < end && !dirty; row = row + 1) {
+        dirty = this.isDirty(row);
+      }
+    }
+  }
+
+  // fills the dirty words of the given row until none are left, marking the words next to
+  // each word that changed dirty
+  void fillRow(int row) {
+    int base = row * this.masks;
+    int m = 0;
+    while (m < this.masks) {
+      long bits = this.dirty[base + m];
+      if (bits == 0) {
+        m = m + 1;
+      }
+      else {
+        int w = m * 64 + Long.numberOfTrailingZeros(bits);
+        this.dirty[base + m] = bits & (bits - 1);
+        if (this.fillWord(row, w)) {
+          if (w > 0) {
+            this.markDirty(row, w - 1);
+            // the word to the left may be in the long before
+            m = (w - 1) / 64;
+          }
+          if (w < this.words - 1) {
+            this.markDirty(row, w + 1);
+          }
+          if (row > 0) {
+            this.markDirty(row - 1, w);
+          }
+          if (row < this.height - 1) {
+            this.markDirty(row + 1, w);
+          }
+        }
+      }
+    }
+  }
+
+  // fills the dead ends in the given word of the given row until it has none left
+  // a dead end is an open cell, other than the start and the goal, with at most one open
+  // cell it can get to
+  // returns true if any were filled
+  boolean fillWord(int row, int w) {
+    int i = row * this.words + w;
+    long keep = 0;
+    if (this.start / this.length == row && this.start % this.length / 64 == w) {
+      keep = keep | (1L << (this.start % this.length));
+    }
+    if (this.goal / this.length == row && this.goal % this.length / 64 == w) {
+      keep = keep | (1L << (this.goal % this.length));
+    }
+    long up = 0;
+    if (row > 0) {
+      up = this.down[i - this.words] & this.open[i - this.words];
+    }
+    long rightPrev = 0;
+    long openPrev = 0;
+    if (w > 0) {
+      rightPrev = this.right[i - 1] >>> 63;
+      openPrev = this.open[i - 1] >>> 63;
+    }
+    long openNext = 0;
+    if (w < this.words - 1) {
+      openNext = this.open[i + 1] << 63;
+    }
+    boolean any = false;
+    while (true) {
+      long open = this.open[i];
+      long toRight = this.right[i] & ((open >>> 1) | openNext);
+      long toLeft = ((this.right[i] << 1) | rightPrev) & ((open << 1) | openPrev);
+      long toDown = 0;
+      if (row < this.height - 1) {
+        toDown = this.down[i] & this.open[i + this.words];
+      }
+      // cells with two or more ways out
+      long through = (toRight & toLeft) | (up & toDown) | ((toRight | toLeft) & (up | toDown));
+      long dead = open & ~through & ~keep;
+      if (dead == 0) {
+        return any;
+      }
+      this.open[i] = open & ~dead;
+      any = true;
+    }
+  }
+
+  // determines if the given cell hasn't been filled in
+  boolean isOpen(int cell) {
+    int col = cell % this.length;
+    return (this.open[cell / this.length * this.words + col / 64] & (1L << col)) != 0;
+  }
+
+  // determines if there's no wall on the given side of the given cell
+  boolean passable(int cell, byte side) {
+    int col = cell % this.length;
+    int row = cell / this.length;
+    if (side == MazeGrid.RIGHT) {
+      return (this.right[row * this.words + col / 64] & (1L << col)) != 0;
+    }
+    else if (side == MazeGrid.LEFT) {
+      return col > 0 && this.passable(cell - 1, MazeGrid.RIGHT);
+    }
+    else if (side == MazeGrid.BOTTOM) {
+      return (this.down[row * this.words + col / 64] & (1L << col)) != 0;
+    }
+    else {
+      return row > 0 && this.passable(cell - this.length, MazeGrid.BOTTOM);
+    }
+  }
+
+  // gets the cells from the start to the goal by walking the corridor the filling left,
+  // or an empty path if it doesn't lead from one to the other
+  int[] path() {
+    int[] steps = new int[] { -this.length, -1, 1, this.length };
+    byte[] sides = new byte[] { MazeGrid.TOP, MazeGrid.LEFT, MazeGrid.RIGHT,
+        MazeGrid.BOTTOM };
+    int left = this.length * this.height - this.filled;
+    int[] path = new int[left];
+    int count = 0;
+    int previous = -1;
+    int cell = this.start;
+    while (count < left) {
+      path[count] = cell;
+      count = count + 1;
+      if (cell == this.goal) {
+        return Arrays.copyOf(path, count);
+      }
+      int next = -1;
+      for (int i = 0; i < 4 && next < 0; i = i + 1) {
+        int other = cell + steps[i];
+        if (other != previous && this.passable(cell, sides[i]) && this.isOpen(other)) {
+          next = other;
+        }
+      }
+      if (next < 0) {
+        return new int[0];
+      }
+      previous = cell;
+      cell = next;
+    }
+    return new int[0];
+  }
+}
+
+// Camera is the part of the maze that fits in the window, in cells
+// it follows the player, jumping to put them back in the middle once they get near an edge,
+// so the scene only has to be drawn whole again every so often rather than on every step
+class Camera {
+  // cells across and down the window, no more than the maze has
+  int cols;
+  int rows;
+  int length;
+  int height;
+  // the first column and row in view
+  int left;
+  int top;
+
+  Camera(int cols, int rows, int length, int height) {
+    this.cols = Math.min(cols, length);
+    this.rows = Math.min(rows, height);
+    this.length = length;
+    this.height = height;
+    this.left = 0;
+    this.top = 0;
+  }
+
+  // moves so that the given cell is in view and at least a quarter of the window from any
+  // edge that isn't the maze's own
+  // returns true if the camera moved
+  boolean follow(int col, int row) {
+    int newLeft = this.left;
+    int newTop = this.top;
+    if (col < this.left + this.cols / 4 || col >= this.left + this.cols - this.cols / 4) {
+      newLeft = Math.max(0, Math.min(col - this.cols / 2, this.length - this.cols));
+    }
+    if (row < this.top + this.rows / 4 || row >= this.top + this.rows - this.rows / 4) {
+      newTop = Math.max(0, Math.min(row - this.rows / 2, this.height - this.rows));
+    }
+    boolean moved = newLeft != this.left || newTop != this.top;
+    this.left = newLeft;
+    this.top = newTop;
+    return moved;
+  }
+
+  // determines if the given cell is in view
+  boolean sees(int col, int row) {
+    return col >= this.left && col < this.left + this.cols && row >= this.top
+        && row < this.top + this.rows;
+  }
+}
+
+// Board holds the Cells of the maze being shown, making each one the first time it is
+// needed, so showing a big maze costs only the cells that have been drawn or coloured
+// cells are kept in square tiles of TILE x TILE, each allocated when one of its cells is
+// first needed
+class Board {
+  static final int TILE_BITS = 6;
+  static final int TILE = 1 << TILE_BITS;
+  MazeWalls maze;
+  SceneCache scene;
+  int length;
+  int height;
+  int tilesAcross;
+  // each tile's cells by row then column within the tile, or null if none are made yet
+  Cell[][] tiles;
+  // number of cells made
+  int made;
+
+  Board(MazeWalls maze, SceneCache scene) {
+    this.maze = maze;
+    this.scene = scene;
+    this.length = maze.length();
+    this.height = maze.height();
+    this.tilesAcross = (this.length + TILE - 1) >> TILE_BITS;
+    this.tiles = new Cell[this.tilesAcross * ((this.height + TILE - 1) >> TILE_BITS)][];
+    this.made = 0;
+  }
+
+  // gets the cell in the given column and row, making it if it isn't made yet
+  Cell get(int col, int row) {
+    int tile = (row >> TILE_BITS) * this.tilesAcross + (col >> TILE_BITS);
+    Cell[] cells = this.tiles[tile];
+    if (cells == null) {
+      cells = new Cell[TILE * TILE];
+      this.tiles[tile] = cells;
+    }
+    int at = ((row & (TILE - 1)) << TILE_BITS) | (col & (TILE - 1));
+    Cell cell = cells[at];
+    if (cell == null) {
+      cell = new Cell(this.maze, this.scene, col, row);
+      cells[at] = cell;
+      this.made = this.made + 1;
+    }
+    return cell;
+  }
+
+  // turns every cell made so far white again, keeping the cells, and has the next frame
+  // drawn whole
+  void clear() {
+    for (Cell[] cells : this.tiles) {
+      if (cells != null) {
+        for (Cell cell : cells) {
+          if (cell != null) {
+            cell.color = Color.white;
+          }
+        }
+      }
+    }
+    this.scene.invalidate();
+  }
+}
+
+// SceneCache keeps the scene drawn for a board and, on later frames, only draws the cells
+// whose color changed on top of it; the wall lines and colored squares are made once and
+// shared, and the whole scene is drawn again once the cells drawn on top outnumber the board
+class SceneCache {
+  MazeWalls grid;
+  // only the cells the camera sees are drawn
+  Camera camera;
+  WorldScene scene;
+  // cells in view whose color changed since the last frame, and which places in the view
+  // they're in, so neither grows with the maze
+  int[] dirty;
+  int dirtyCount;
+  boolean[] isDirty;
+  // number of cells drawn on top of the scene since it was drawn whole
+  int layered;
+  // number of cells drawn for the last frame
+  int drawn;
+  // number of images made for the last frame
+  int images;
+  WorldImage topWall;
+  WorldImage leftWall;
+  HashMap<Color, WorldImage> squares;
+
+  SceneCache(MazeWalls grid) {
+    this(grid, new Camera(grid.length(), grid.height(), grid.length(), grid.height()));
+  }
+
+  SceneCache(MazeWalls grid, Camera camera) {
+    this.grid = grid;
+    this.camera = camera;
+    this.scene = null;
+    this.dirty = new int[camera.cols * camera.rows];
+    this.dirtyCount = 0;
+    this.isDirty = new boolean[camera.cols * camera.rows];
+    this.layered = 0;
+    this.drawn = 0;
+    this.images = 0;
+    this.topWall = new LineImage(new Posn(MazeWorld.SCALE, 0), Color.black);
+    this.leftWall = new LineImage(new Posn(0, MazeWorld.SCALE), Color.black);
+    this.squares = new HashMap<Color, WorldImage>();
+  }
+
+  // records that the cell in the given column and row needs to be drawn again
+  // cells out of view are drawn from their color when the camera reaches them, and the
+  // camera moving draws the scene whole, so they needn't be recorded
+  void markDirty(int col, int row) {
+    if (!this.camera.sees(col, row)) {
+      return;
+    }
+    int spot = this.spotOf(col, row);
+    if (!this.isDirty[spot]) {
+      this.isDirty[spot] = true;
+      this.dirty[this.dirtyCount] = this.grid.id(col, row);
+      this.dirtyCount = this.dirtyCount + 1;
+    }
+  }
+
+  // gets the place in the view of the cell in the given column and row
+  int spotOf(int col, int row) {
+    return (row - this.camera.top) * this.camera.cols + col - this.camera.left;
+  }
+
+  // throws away the scene so the next frame draws the whole board
+  void invalidate() {
+    this.scene = null;
+  }
+
+  // gets the scene for the given board, drawing only what changed since the last frame and
+  // only what the camera sees
+  WorldScene draw(Board board) {
+    Camera camera = this.camera;
+    this.drawn = 0;
+    this.images = 0;
+    if (this.scene == null || this.layered + this.dirtyCount > camera.cols * camera.rows) {
+      this.scene = new WorldScene(camera.cols * MazeWorld.SCALE,
+          camera.rows * MazeWorld.SCALE);
+      this.images = this.images + 1;
+      for (int row = camera.top; row < camera.top + camera.rows; row = row + 1) {
+        for (int col = camera.left; col < camera.left + camera.cols; col = col + 1) {
+          this.drawCell(board.get(col, row));
+        }
+      }
+      this.layered = 0;
+    }
+    else {
+      for (int i = 0; i < this.dirtyCount; i = i + 1) {
+        int cell = this.dirty[i];
+        Cell changed = board.get(cell % this.grid.length(), cell / this.grid.length());
+        if (camera.sees(changed.x, changed.y)) {
+          this.drawCell(changed);
+          // the square covers the neighbors' walls on its right and bottom edges too
+          if (changed.x < this.grid.length() - 1 && changed.right()) {
+            this.scene.placeImageXY(this.leftWall, this.sceneX(changed) + MazeWorld.SCALE / 2,
+                this.sceneY(changed));
+          }
+          if (changed.y < this.grid.height() - 1 && changed.bottom()) {
+            this.scene.placeImageXY(this.topWall, this.sceneX(changed),
+                this.sceneY(changed) + MazeWorld.SCALE / 2);
+          }
+          this.layered = this.layered + 1;
+        }
+      }
+    }
+    // cleared whole, since the camera may have moved since the cells were recorded
+    if (this.dirtyCount > 0) {
+      Arrays.fill(this.isDirty, false);
+    }
+    this.dirtyCount = 0;
+    return this.scene;
+  }
+
+  // gets the x-coordinate of the given cell's center in the scene
+  int sceneX(Cell cell) {
+    return cell.cellX() - this.camera.left * MazeWorld.SCALE;
+  }
+
+  // gets the y-coordinate of the given cell's center in the scene
+  int sceneY(Cell cell) {
+    return cell.cellY() - this.camera.top * MazeWorld.SCALE;
+  }
+
+  // draws the given cell's square and its top and left walls
+  void drawCell(Cell cell) {
+    WorldImage square = this.squares.get(cell.color);
+    if (square == null) {
+      square = cell.drawCell(cell.color);
+      this.squares.put(cell.color, square);
+      this.images = this.images + 1;
+    }
+    int x = this.sceneX(cell);
+    int y = this.sceneY(cell);
+    this.scene.placeImageXY(square, x, y);
+    if (cell.top()) {
+      this.scene.placeImageXY(this.topWall, x, y - MazeWorld.SCALE / 2);
+    }
+    if (cell.left()) {
+      this.scene.placeImageXY(this.leftWall, x - MazeWorld.SCALE / 2, y);
+    }
+    this.drawn = this.drawn + 1;
+  }
+}
+
+// AnimationScheduler decides how many cells of a search's trace to colour on each tick, so
+// the whole animation takes about the same time however big the maze is
+// each tick colours the cells left over the ticks left in the animation, and at least one,
+// so a small maze still shows a cell a tick and a big one is coloured in large batches
+// until the search finishes, the cells left are counted as every cell not yet shown
+// a real-time scheduler also keeps a budget for each tick: it counts the ticks missed while a
+// slow tick ran as dropped frames, takes them out of the ticks left so the animation catches
+// up, and stops a batch that runs over the budget, leaving the rest to the next tick
+// a scheduler that isn't real-time only counts ticks, so a recorded session replays the same
+class AnimationScheduler {
+  // how often bigBang ticks, and how long an animation should take
+  static double TICK_SECONDS = .01;
+  static double ANIMATION_SECONDS = 5;
+  // share of a tick that colouring may take
+  static double BUDGET_SHARE = .5;
+  // cells coloured between looks at the clock
+  static int CHECK_EVERY = 256;
+  boolean realTime;
+  long tickNanos;
+  long budgetNanos;
+  // ticks the animation should take
+  long ticks;
+  // ticks and dropped frames so far in this animation
+  long frames;
+  long dropped;
+  // when the last tick started, 0 if none has since the animation started or stopped
+  long lastTick;
+  // when this tick started
+  long tickStart;
+
+  AnimationScheduler(boolean realTime) {
+    this(realTime, TICK_SECONDS, ANIMATION_SECONDS);
+  }
+
+  AnimationScheduler(boolean realTime, double tickSeconds, double animationSeconds) {
+    this.realTime = realTime;
+    this.tickNanos = (long) (tickSeconds * 1e9);
+    this.budgetNanos = (long) (tickSeconds * BUDGET_SHARE * 1e9);
+    this.ticks = Math.max(1, Math.round(animationSeconds / tickSeconds));
+    this.start();
+  }
+
+  // starts a new animation
+  void start() {
+    this.frames = 0;
+    this.dropped = 0;
+    this.lastTick = 0;
+  }
+
+  // notes that nothing was animated this tick, so the gap before the next one isn't dropped
+  // frames
+  void idle() {
+    this.lastTick = 0;
+  }
+
+  // starts a tick
+  void tick() {
+    this.frames = this.frames + 1;
+    if (this.realTime) {
+      this.tickStart = System.nanoTime();
+      if (this.lastTick != 0) {
+        long missed = (this.tickStart - this.lastTick) / this.tickNanos - 1;
+        if (missed > 0) {
+          this.dropped = this.dropped + missed;
+          this.frames = this.frames + missed;
+          if (MazeMetrics.ENABLED) {
+            MazeMetrics.METRICS.droppedFrames.add(missed);
+          }
+        }
+      }
+      this.lastTick = this.tickStart;
+    }
+  }
+
+  // gets how many cells to colour this tick, given how many are left
+  int cellsFor(long left) {
+    long ticksLeft = Math.max(1, this.ticks - this.frames + 1);
+    long cells = (left + ticksLeft - 1) / ticksLeft;
+    return (int) Math.max(1, Math.min(cells, Integer.MAX_VALUE));
+  }
+
+  // determines if a tick that has coloured the given number of cells may colour more
+  boolean withinBudget(int coloured) {
+    return !this.realTime || coloured % CHECK_EVERY != 0
+        || System.nanoTime() - this.tickStart < this.budgetNanos;
+  }
+}
+
+// represents a random maze
+class MazeWorld extends World {
+  // if maze is smaller than 50 x 50, scale is 20
+  static int SCALE = 10;
+  // size of the window the game is played in; bigger mazes scroll with the player
+  static int VIEW_WIDTH = 1000;
+  static int VIEW_HEIGHT = 700;
+  int length;
+  int height;
+  Random rand;
+  // where mazes made by this world are built
+  MazeGrid grid;
+  // what makes the mazes, changed with the g key
+  MazeGenerator generator;
+  // the maze being shown: the grid, or a maze made elsewhere
+  MazeWalls maze;
+  // the last scene drawn, and the cells that changed since
+  SceneCache sceneCache;
+  // the part of the board in the window, which follows the player
+  Camera camera;
+  Board board;
+  // weight of each edge, by edge number
+  int[] weights;
+  // each edge packed as its weight (shifted to be positive) over its number
+  long[] edges;
+  // numbers of the edges in the minimum spanning tree
+  int[] mst;
+  // answers path queries on the maze being shown, built on the first click after it changes
+  PathIndex paths;
+  // every cell's distance from the end, walked again the first time it is needed after the
+  // maze changes, reusing its arrays
+  DistanceField distances;
+  boolean distancesCurrent;
+  VisitTrace visitedBFS;
+  VisitTrace visitedDFS;
+  // true if b is pressed
+  boolean breadthFirst;
+  // true if d is pressed
+  boolean depthFirst;
+  // true if a is pressed
+  boolean aStar;
+  // true if m is pressed
+  boolean bidirectional;
+  // true if breadth or depth first are running
+  boolean searching;
+  // true if search is done
+  boolean end;
+  // the search that is running or ran last, null if none has started
+  MazeSearch search;
+  // how many cells the search expands on each tick
+  static int STEPS_PER_TICK = 4096;
+  // how many cells of the search's trace have been coloured
+  int tick;
+  // how many of them to colour each tick
+  AnimationScheduler animation;
+  // true if done back tracking
+  boolean doneBackTracking;
+  // current traversing cell's x value
+  int curX;
+  // current traversing cell's y value
+  int curY;
+  // true if h is pressed
+  boolean preferHorizontal;
+  // true if v is pressed
+  boolean preferVertical;
+  // true if BFS is done
+  boolean doneBFS;
+  // true if DFS is done
+  boolean doneDFS;
+  // true if A* is done
+  boolean doneAStar;
+  // true if bidirectional search is done
+  boolean doneBidirectional;
+  // true if user finishes maze
+  boolean completed;
+  // where every key, tick and click is recorded, null if the world isn't being recorded
+  InputLog recording;
+
+  MazeWorld(int length, int height) {
+    this(length, height, new Random());
+  }
+
+  // seeded random for testing
+  MazeWorld(int length, int height, Random rand) {
+    this(length, height, rand, KruskalGenerator.forCells(length * height));
+  }
+
+  // makes its mazes with the given generator
+  MazeWorld(int length, int height, Random rand, MazeGenerator generator) {
+    this.length = length;
+    this.height = height;
+    this.rand = rand;
+    this.generator = generator;
+    this.animation = new AnimationScheduler(false);
+    this.grid = null;
+    this.maze = null;
+    this.preferHorizontal = false;
+    this.preferVertical = false;
+    this.reset();
+  }
+
+  // shows a maze made elsewhere, such as one opened with MazeFile.open
+  // its walls are read from the given maze as they are needed, and its cells are only made
+  // once they're drawn or coloured, so even a very big maze opens at once
+  MazeWorld(MazeWalls maze) {
+    this.length = maze.length();
+    this.height = maze.height();
+    this.rand = new Random();
+    this.generator = new KruskalGenerator();
+    this.animation = new AnimationScheduler(false);
+    this.grid = null;
+    this.maze = maze;
+    this.buildBoard();
+    this.weights = new int[0];
+    this.edges = new long[0];
+    this.mst = new int[0];
+    this.paths = null;
+    this.distances = null;
+    this.distancesCurrent = false;
+    this.preferHorizontal = false;
+    this.preferVertical = false;
+    this.clear();
+  }
+
+  // makes the board, whose cells look their walls up in the maze being shown and are only
+  // made once they're drawn or coloured
+  void buildBoard() {
+    this.camera = new Camera(VIEW_WIDTH / SCALE, VIEW_HEIGHT / SCALE, this.length, this.height);
+    this.sceneCache = new SceneCache(this.maze, this.camera);
+    this.board = new Board(this.maze, this.sceneCache);
+  }
+
+  // makes a maze on the grid with this world's generator and bias
+  // only generators that weigh edges leave weights and sorted edges behind
+  void generate() {
+    long start = MazeMetrics.start();
+    this.paths = null;
+    this.distancesCurrent = false;
+    if (this.generator instanceof KruskalGenerator) {
+      this.addEdges();
+      this.mst = this.kruskal();
+    }
+    else {
+      this.mst = this.generator.generate(this.grid, this.rand, this.preferHorizontal,
+          this.preferVertical);
+      this.weights = new int[0];
+      this.edges = new long[0];
+    }
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.METRICS.generated(this.generator, this.grid.cells(), start);
+    }
+  }
+
+  // adds edges to this array of edges
+  // this and kruskal run the steps of a KruskalGenerator one at a time, and do nothing when
+  // the world's generator doesn't weigh edges
+  public void addEdges() {
+    if (!(this.generator instanceof KruskalGenerator)) {
+      return;
+    }
+    long start = MazeMetrics.start();
+    KruskalGenerator weighted = (KruskalGenerator) this.generator;
+    weighted.addEdges(this.grid, this.rand, this.preferHorizontal, this.preferVertical);
+    this.weights = weighted.weights;
+    this.edges = weighted.edges;
+    MazeMetrics.METRICS.addEdges.since(start);
+  }
+
+  // gets a view of the edge with the given number
+  Edge edge(int edge) {
+    int weight = 0;
+    // weights are only known for mazes made by this world
+    if (edge < this.weights.length) {
+      weight = this.weights[edge];
+    }
+    return new Edge(this.cellAt(MazeGrid.from(edge)), this.cellAt(this.maze.to(edge)), weight);
+  }
+
+  // gets the cell with the given number
+  Cell cellAt(int cell) {
+    return this.board.get(cell % length, cell / length);
+  }
+
+  // gets a view of the edge in the given position of this array of edges
+  Edge sortedEdge(int index) {
+    return this.edge((int) this.edges[index]);
+  }
+
+  // gets views of the edges leading out of the given cell, in the order up, left, right, down
+  ArrayList<Edge> outEdges(Cell cell) {
+    ArrayList<Edge> out = new ArrayList<Edge>();
+    int id = cell.id();
+    if (!cell.top()) {
+      out.add(this.edge(2 * (id - length) + 1));
+    }
+    if (!cell.left()) {
+      out.add(this.edge(2 * (id - 1)));
+    }
+    if (!cell.right()) {
+      out.add(this.edge(2 * id));
+    }
+    if (!cell.bottom()) {
+      out.add(this.edge(2 * id + 1));
+    }
+    return out;
+  }
+
+  // determines if the given edge is part of the minimum spanning tree
+  boolean inTree(Edge e) {
+    if (e.isHorizontal()) {
+      return !e.from.right();
+    }
+    else {
+      return !e.from.bottom();
+    }
+  }
+
+  // renders the board, counting the frame if metrics are on
+  public WorldScene makeScene() {
+    long start = MazeMetrics.start();
+    WorldScene scene = this.drawScene();
+    if (MazeMetrics.ENABLED && !this.completed) {
+      MazeMetrics.METRICS.frame(start, this.sceneCache.images, this.sceneCache.drawn);
+    }
+    return scene;
+  }
+
+  // renders the board
+  WorldScene drawScene() {
+    if (this.completed) {
+      return lastScene("Maze is complete!");
+    }
+    this.board.get(0, 0).changeColor(Color.green);
+    this.board.get(length - 1, height - 1).changeColor(Color.magenta);
+    if (this.camera.follow(curX, curY)) {
+      this.sceneCache.invalidate();
+    }
+    return this.sceneCache.draw(this.board);
+  }
+
+  public WorldScene lastScene(String msg) {
+    WorldScene endImage = new WorldScene(1000, 700);
+    endImage.placeImageXY(new TextImage(msg, 20, Color.black), 500, 350);
+    endImage.placeImageXY(new TextImage("Click 'r' to reset", 15, Color.red), 500, 400);
+    endImage.placeImageXY(new TextImage("Click 'backspace' to clear", 15, Color.black), 500, 430);
+    return endImage;
+  }
+
+  // gets minimum spanning tree
+  // and takes down the walls its edges cross
+  // a generator that doesn't weigh edges has no edges added, so its tree is kept as it is
+  public int[] kruskal() {
+    if (!(this.generator instanceof KruskalGenerator)) {
+      return this.mst;
+    }
+    long start = MazeMetrics.start();
+    int[] tree = ((KruskalGenerator) this.generator).spanningTree(this.grid);
+    MazeMetrics.METRICS.kruskal.since(start);
+    return tree;
+  }
+
+  // searches cells using breadth-first search, carrying on from where the ticks left off
+  public boolean breadthFirst() {
+    long start = MazeMetrics.start();
+    boolean found = this.advance(MazeSearch.BREADTH_FIRST, Integer.MAX_VALUE);
+    MazeMetrics.METRICS.breadthFirst.since(start);
+    return found;
+  }
+
+  // searches cells using depth-first search, carrying on from where the ticks left off
+  public boolean depthFirst() {
+    long start = MazeMetrics.start();
+    boolean found = this.advance(MazeSearch.DEPTH_FIRST, Integer.MAX_VALUE);
+    MazeMetrics.METRICS.depthFirst.since(start);
+    return found;
+  }
+
+  // searches cells using A*, carrying on from where the ticks left off
+  public boolean aStar() {
+    return this.advance(MazeSearch.A_STAR, Integer.MAX_VALUE);
+  }
+
+  // searches cells from both ends at once, carrying on from where the ticks left off
+  public boolean bidirectional() {
+    return this.advance(MazeSearch.BIDIRECTIONAL, Integer.MAX_VALUE);
+  }
+
+  // expands up to the given number of cells of the given kind of search,
+  // starting that search first if it isn't the one running
+  // returns true if the search has found the end
+  boolean advance(int kind, int expansions) {
+    if (this.search == null || this.search.kind() != kind || this.search.cancelled) {
+      this.search = MazeSearch.of(kind, this.maze, 0, this.maze.cells() - 1);
+      // only the new search's trace is animated
+      this.visitedBFS = new VisitTrace(0);
+      this.visitedDFS = new VisitTrace(0);
+      if (kind == MazeSearch.BREADTH_FIRST) {
+        this.visitedBFS = this.search.trace;
+      }
+      if (kind == MazeSearch.DEPTH_FIRST) {
+        this.visitedDFS = this.search.trace;
+      }
+      this.tick = 0;
+      this.animation.start();
+    }
+    int expandedBefore = this.search.expanded;
+    boolean doneBefore = this.search.done;
+    this.search.step(expansions);
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.METRICS.expanded(this.search, this.search.expanded - expandedBefore,
+          this.search.done && !doneBefore);
+    }
+    if (this.search.found) {
+      this.doneBFS = kind == MazeSearch.BREADTH_FIRST;
+      this.doneDFS = kind == MazeSearch.DEPTH_FIRST;
+      this.doneAStar = kind == MazeSearch.A_STAR;
+      this.doneBidirectional = kind == MazeSearch.BIDIRECTIONAL;
+    }
+    return this.search.found;
+  }
+
+  // gets the kind of search picked with the keys, or -1 if none is
+  int selectedSearch() {
+    if (this.breadthFirst) {
+      return MazeSearch.BREADTH_FIRST;
+    }
+    else if (this.depthFirst) {
+      return MazeSearch.DEPTH_FIRST;
+    }
+    else if (this.aStar) {
+      return MazeSearch.A_STAR;
+    }
+    else if (this.bidirectional) {
+      return MazeSearch.BIDIRECTIONAL;
+    }
+    else {
+      return -1;
+    }
+  }
+
+  // gets the kind of search that has found the end, or -1 if none has
+  int finishedSearch() {
+    if (this.doneBFS) {
+      return MazeSearch.BREADTH_FIRST;
+    }
+    else if (this.doneDFS) {
+      return MazeSearch.DEPTH_FIRST;
+    }
+    else if (this.doneAStar) {
+      return MazeSearch.A_STAR;
+    }
+    else if (this.doneBidirectional) {
+      return MazeSearch.BIDIRECTIONAL;
+    }
+    else {
+      return -1;
+    }
+  }
+
+  // starts showing the given kind of search
+  void select(int kind) {
+    if (!this.searching) {
+      this.animation.start();
+    }
+    this.searching = true;
+    this.breadthFirst = kind == MazeSearch.BREADTH_FIRST;
+    this.depthFirst = kind == MazeSearch.DEPTH_FIRST;
+    this.aStar = kind == MazeSearch.A_STAR;
+    this.bidirectional = kind == MazeSearch.BIDIRECTIONAL;
+  }
+
+  // if the b key is pressed, run breadth-first search
+  // if the d key is pressed, run depth-first search
+  // if the a key is pressed, run A* search
+  // if the m key is pressed, run a search from both ends that meets in the middle
+  // if the p key is pressed, pause or resume the search
+  // if the escape key is pressed, cancel the search
+  // if the r key is pressed, reset with new random maze
+  // if the h key is pressed, reset with a horizontally-biased maze
+  // if the v key is pressed, reset with a vertically-biased maze
+  // if the backspace key is pressed, clear the maze
+  // if the enter key is pressed, reset the board and show the correct path
+  // user can traverse the maze with the arrow keys
+  public void onKeyEvent(String key) {
+    long start = MazeMetrics.start();
+    if (this.recording != null) {
+      this.recording.key(key);
+    }
+    this.handleKey(key);
+    MazeMetrics.METRICS.onKeyEvent.since(start);
+  }
+
+  // handles the given key, as onKeyEvent describes
+  void handleKey(String key) {
+    // b / breadth first
+    if (key.equals("b")) {
+      this.select(MazeSearch.BREADTH_FIRST);
+    }
+    // d / depth first
+    if (key.equals("d")) {
+      this.select(MazeSearch.DEPTH_FIRST);
+    }
+    // a / A*
+    if (key.equals("a")) {
+      this.select(MazeSearch.A_STAR);
+    }
+    // m / bidirectional
+    if (key.equals("m")) {
+      this.select(MazeSearch.BIDIRECTIONAL);
+    }
+    // p / pause or resume
+    if (key.equals("p") && this.search != null) {
+      if (this.search.paused) {
+        this.search.resume();
+      }
+      else {
+        this.search.pause();
+      }
+    }
+    // escape / cancel
+    if (key.equals("escape") && this.search != null && !this.search.done) {
+      this.search.cancel();
+      this.searching = false;
+      this.breadthFirst = false;
+      this.depthFirst = false;
+      this.aStar = false;
+      this.bidirectional = false;
+    }
+    // r / reset
+    if (key.equals("r")) {
+      this.preferHorizontal = false;
+      this.preferVertical = false;
+      this.reset();
+    }
+    // h / horizontal bias
+    if (key.equals("h")) {
+      this.preferHorizontal = true;
+      this.preferVertical = false;
+      this.reset();
+    }
+    // v / vertical bias
+    if (key.equals("v")) {
+      this.preferVertical = true;
+      this.preferHorizontal = false;
+      this.reset();
+    }
+    // g / next generator, keeping the bias
+    if (key.equals("g")) {
+      this.generator = MazeGenerator.named(this.nextGenerator(), this.length * this.height);
+      this.reset();
+    }
+    // backspace / clear
+    if (key.equals("backspace")) {
+      this.preferHorizontal = false;
+      this.preferVertical = false;
+      this.clear();
+    }
+    // enter / solution
+    if (key.equals("enter")) {
+      this.searching = false;
+      int finished = this.finishedSearch();
+      if (finished >= 0) {
+        // finishes the search if the ticks haven't yet, otherwise uses what it found
+        this.advance(finished, Integer.MAX_VALUE);
+        for (int cell : this.search.path()) {
+          if (cell != 0) {
+            this.cellAt(cell).changeColor(Color.blue);
+          }
+        }
+        this.doneBackTracking = true;
+        this.tick = 0;
+      }
+      else {
+        this.showWayOut();
+      }
+    }
+    // f / distance heatmap
+    if (key.equals("f")) {
+      this.showHeatmap();
+    }
+    // n / hint
+    if (key.equals("n")) {
+      this.showHint();
+    }
+    // traversing
+    if (!this.searching) {
+      Cell current = this.board.get(curX, curY);
+      Cell end = this.board.get(length - 1, height - 1);
+      if (key.equals("left") && (!current.left())) {
+        current.changeColor(Color.LIGHT_GRAY);
+        curX = curX - 1;
+        current = this.board.get(curX, curY);
+        current.changeColor(Color.gray);
+      }
+      if (key.equals("right") && (!current.right())) {
+        current.changeColor(Color.LIGHT_GRAY);
+        curX = curX + 1;
+        current = this.board.get(curX, curY);
+        if (current.equals(end)) {
+          this.completed = true;
+        }
+        current.changeColor(Color.gray);
+      }
+      if (key.equals("up") && (!current.top())) {
+        current.changeColor(Color.LIGHT_GRAY);
+        curY = curY - 1;
+        current = this.board.get(curX, curY);
+        current.changeColor(Color.gray);
+      }
+      if (key.equals("down") && (!current.bottom())) {
+        current.changeColor(Color.LIGHT_GRAY);
+        curY = curY + 1;
+        current = this.board.get(curX, curY);
+        if (current.equals(end)) {
+          this.completed = true;
+        }
+        current.changeColor(Color.gray);
+      }
+    }
+  }
+
+  // handles each tick, timing it if metrics are on
+  public void onTick() {
+    long start = MazeMetrics.start();
+    if (this.recording != null) {
+      this.recording.tick();
+    }
+    this.handleTick();
+    MazeMetrics.METRICS.onTick.since(start);
+  }
+
+  // determines if a tick would change anything; once one doesn't, none will until a key
+  // is pressed
+  boolean ticking() {
+    if (!this.searching || (this.search != null && this.search.paused)) {
+      return false;
+    }
+    return (!this.end && this.selectedSearch() >= 0)
+        || (this.search != null && this.tick < this.search.trace.size());
+  }
+
+  // animates the search for one tick, colouring as many cells of its trace as the animation
+  // scheduler asks for
+  void handleTick() {
+    if (!this.ticking()) {
+      this.animation.idle();
+      return;
+    }
+    if (!this.end && this.selectedSearch() >= 0) {
+      int expansions = Math.max(STEPS_PER_TICK, this.animation.cellsFor(this.cellsLeft()));
+      if (this.advance(this.selectedSearch(), expansions)) {
+        this.end = true;
+      }
+    }
+    this.animation.tick();
+    int cells = this.animation.cellsFor(this.cellsLeft());
+    int coloured = 0;
+    while (coloured < cells && this.tick < this.search.trace.size()
+        && this.animation.withinBudget(coloured)) {
+      this.cellAt(this.search.trace.get(this.tick)).changeColor(Color.cyan);
+      this.tick = this.tick + 1;
+      coloured = coloured + 1;
+    }
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.METRICS.tickCells.record(coloured);
+    }
+  }
+
+  // gets how many cells of the search's trace are left to colour: every cell not yet
+  // coloured until the search finishes, then the rest of its trace
+  long cellsLeft() {
+    if (this.search == null || !this.search.done) {
+      return this.maze.cells() - this.tick;
+    }
+    return this.search.trace.size() - this.tick;
+  }
+
+  // gets every cell's distance from the end
+  DistanceField distanceField() {
+    if (this.distances == null) {
+      this.distances = new DistanceField(this.maze, this.maze.cells() - 1);
+    }
+    else if (!this.distancesCurrent) {
+      this.distances.compute(this.maze, this.maze.cells() - 1);
+    }
+    this.distancesCurrent = true;
+    return this.distances;
+  }
+
+  // colours every cell by how far it is from the end
+  void showHeatmap() {
+    DistanceField field = this.distanceField();
+    for (int row = 0; row < height; row = row + 1) {
+      for (int column = 0; column < length; column = column + 1) {
+        Cell cell = this.board.get(column, row);
+        cell.changeColor(field.colorOf(cell.id()));
+      }
+    }
+  }
+
+  // colours the next step toward the end from where the player is
+  void showHint() {
+    int next = this.distanceField().toward(this.maze.id(curX, curY));
+    if (next != this.maze.id(curX, curY)) {
+      this.cellAt(next).changeColor(Color.yellow);
+    }
+  }
+
+  // colours the way from where the player is to the end, when no search has found it
+  void showWayOut() {
+    DistanceField field = this.distanceField();
+    int cell = this.maze.id(curX, curY);
+    while (field.toward(cell) != cell) {
+      cell = field.toward(cell);
+      this.cellAt(cell).changeColor(Color.blue);
+    }
+  }
+
+  // gets the name of the generator after this world's one
+  String nextGenerator() {
+    String[] names = MazeGenerator.NAMES;
+    for (int i = 0; i < names.length; i = i + 1) {
+      if (names[i].equals(this.generator.name())) {
+        return names[(i + 1) % names.length];
+      }
+    }
+    return names[0];
+  }
+
+  // shows the path from where the player is to the clicked cell
+  public void onMouseClicked(Posn pos) {
+    int col = pos.x / SCALE + this.camera.left;
+    int row = pos.y / SCALE + this.camera.top;
+    if (col < 0 || row < 0 || col >= this.length || row >= this.height) {
+      return;
+    }
+    if (this.recording != null) {
+      this.recording.click(col, row);
+    }
+    this.showPathTo(col, row);
+  }
+
+  // shows the path from where the player is to the cell at the given column and row
+  void showPathTo(int col, int row) {
+    if (this.completed) {
+      return;
+    }
+    for (int cell : this.pathBetween(this.maze.id(curX, curY), this.maze.id(col, row))) {
+      if (cell != this.maze.id(curX, curY)) {
+        this.cellAt(cell).changeColor(Color.blue);
+      }
+    }
+  }
+
+  // gets the cells on the path between the two given cells, building the index if needed
+  int[] pathBetween(int from, int to) {
+    if (this.paths == null) {
+      this.paths = new PathIndex(this.maze, 0);
+    }
+    return this.paths.path(from, to);
+  }
+
+  // resets with a new random maze
+  // the grid, the board of cells and the scene cache are kept and rewritten in place, unless
+  // the world has none yet or is showing a maze made elsewhere
+  public void reset() {
+    if (this.grid == null || this.maze != this.grid) {
+      this.grid = new MazeGrid(length, height);
+      this.maze = this.grid;
+      this.buildBoard();
+    }
+    else {
+      this.grid.closeAll();
+      // every wall may have moved, so the next frame is drawn whole
+      this.sceneCache.invalidate();
+    }
+    this.generate();
+    this.clear();
+  }
+
+  // clears the board without creating a new random maze
+  public void clear() {
+    this.board.clear();
+    this.visitedBFS = new VisitTrace(0);
+    this.visitedDFS = new VisitTrace(0);
+    this.breadthFirst = false;
+    this.depthFirst = false;
+    this.aStar = false;
+    this.bidirectional = false;
+    this.searching = false;
+    this.end = false;
+    this.search = null;
+    this.tick = 0;
+    this.doneBackTracking = false;
+    this.curX = 0;
+    this.curY = 0;
+    this.doneBFS = false;
+    this.doneDFS = false;
+    this.doneAStar = false;
+    this.doneBidirectional = false;
+    this.completed = false;
+  }
+}
+
+// InputLog records a MazeWorld session compactly enough to keep every one: the world's size
+// and seed, then one record per key press or click, each a varint of the ticks since the
+// record before shifted left 4 bits over a 4-bit code
+// the common keys have codes of their own, so a move a few ticks after the last one takes a
+// single byte; the rare keys and the ticks after the last key take code OTHER and a varint
+// index into OTHER_KEYS, and a click takes code CLICK and the varint column and row clicked
+// keys MazeWorld does nothing with aren't recorded
+class InputLog {
+  // "MZRL" in ASCII
+  static final int MAGIC = 0x4D5A524C;
+  static final int VERSION = 1;
+  static final int HEADER_BYTES = 24;
+  static final String[] KEYS = new String[] { "up", "down", "left", "right", "b", "d", "a",
+      "m", "p", "escape", "enter", "n", "r", "backspace" };
+  static final int OTHER = 14;
+  static final int CLICK = 15;
+  // "" stands for no key, just the ticks since the last record
+  static final String[] OTHER_KEYS = new String[] { "", "h", "v", "g", "f" };
+  int length;
+  int height;
+  long seed;
+  byte[] bytes;
+  int size;
+  // ticks since the last record
+  long ticks;
+  // number of keys and clicks recorded
+  long events;
+
+  InputLog(int length, int height, long seed) {
+    this.length = length;
+    this.height = height;
+    this.seed = seed;
+    this.bytes = new byte[256];
+    ByteBuffer header = ByteBuffer.wrap(this.bytes);
+    header.putInt(MAGIC).putInt(VERSION).putInt(length).putInt(height).putLong(seed);
+    this.size = HEADER_BYTES;
+    this.ticks = 0;
+    this.events = 0;
+  }
+
+  // reads a log written by bytes()
+  static InputLog read(byte[] bytes) throws IOException {
+    if (bytes.length < HEADER_BYTES) {
+      throw new IOException("not an input log");
+    }
+    ByteBuffer header = ByteBuffer.wrap(bytes);
+    if (header.getInt() != MAGIC) {
+      throw new IOException("not an input log");
+    }
+    if (header.getInt() != VERSION) {
+      throw new IOException("input log was written by a different version");
+    }
+    InputLog log = new InputLog(header.getInt(), header.getInt(), header.getLong());
+    log.bytes = bytes.clone();
+    log.size = bytes.length;
+    return log;
+  }
+
+  // reads the log in the given file
+  static InputLog read(Path path) throws IOException {
+    return read(Files.readAllBytes(path));
+  }
+
+  // makes a seeded world that records everything done to it into its recording
+  static MazeWorld recordedWorld(int length, int height, long seed) {
+    MazeWorld world = new MazeWorld(length, height, new Random(seed));
+    world.recording = new InputLog(length, height, seed);
+    return world;
+  }
+
+  // gets the code of the given key, or -1 if it isn't one of KEYS
+  static int codeOf(String key) {
+    for (int code = 0; code < KEYS.length; code = code + 1) {
+      if (KEYS[code].equals(key)) {
+        return code;
+      }
+    }
+    return -1;
+  }
+
+  // gets the index of the given key in OTHER_KEYS, or -1 if it isn't there
+  static int otherOf(String key) {
+    for (int i = 1; i < OTHER_KEYS.length; i = i + 1) {
+      if (OTHER_KEYS[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // records a tick
+  void tick() {
+    this.ticks = this.ticks + 1;
+  }
+
+  // records the given key, if MazeWorld does anything with it
+  void key(String key) {
+    int code = codeOf(key);
+    if (code >= 0) {
+      this.record(code);
+    }
+    else {
+      int other = otherOf(key);
+      if (other > 0) {
+        this.record(OTHER);
+        this.putVarint(other);
+      }
+    }
+  }
+
+  // records a click on the given column and row
+  void click(int col, int row) {
+    this.record(CLICK);
+    this.putVarint(col);
+    this.putVarint(row);
+  }
+
+  // starts a record with the given code after the ticks since the last one
+  void record(int code) {
+    this.putVarint((this.ticks << 4) | code);
+    this.ticks = 0;
+    this.events = this.events + 1;
+  }
+
+  // adds the given number to the log 7 bits at a time, low bits first, with the top bit
+  // of each byte set if more follow
+  void putVarint(long value) {
+    if (this.size + 10 > this.bytes.length) {
+      this.bytes = Arrays.copyOf(this.bytes, 2 * this.bytes.length);
+    }
+    while ((value & ~0x7FL) != 0) {
+      this.bytes[this.size] = (byte) ((value & 0x7F) | 0x80);
+      this.size = this.size + 1;
+      value = value >>> 7;
+    }
+    this.bytes[this.size] = (byte) value;
+    this.size = this.size + 1;
+  }
+
+  // gets the log so far, with the ticks since the last record at the end
+  byte[] bytes() {
+    byte[] out = Arrays.copyOf(this.bytes, this.size + 12);
+    int end = this.size;
+    if (this.ticks > 0) {
+      end = putVarint(out, end, (this.ticks << 4) | OTHER);
+      end = putVarint(out, end, 0);
+    }
+    return Arrays.copyOf(out, end);
+  }
+
+  // puts the given number into the given array at the given place as putVarint does,
+  // returning the place after it
+  static int putVarint(byte[] into, int at, long value) {
+    while ((value & ~0x7FL) != 0) {
+      into[at] = (byte) ((value & 0x7F) | 0x80);
+      at = at + 1;
+      value = value >>> 7;
+    }
+    into[at] = (byte) value;
+    return at + 1;
+  }
+
+  // writes the log so far to the given file
+  void write(Path path) throws IOException {
+    Files.write(path, this.bytes());
+  }
+}
+
+// InputReplay plays an InputLog back on a new world made from the log's size and seed,
+// without drawing anything, so the world ends up exactly as the recorded one did
+// ticks that can't change anything, because no search is being animated, are skipped
+// rather than run, so a long idle stretch costs no more than one record
+// run it with: java InputReplay LOG ... to see which sessions completed their maze
+class InputReplay {
+  MazeWorld world;
+  byte[] bytes;
+  // where the next record starts
+  int position;
+  // ticks played so far
+  long tick;
+  // keys and clicks played so far
+  long events;
+  // the next record, with the ticks before it that haven't been played yet
+  boolean hasNext;
+  long nextTicks;
+  int nextCode;
+  int nextX;
+  int nextY;
+
+  InputReplay(InputLog log) {
+    this(log.bytes(), new MazeWorld(log.length, log.height, new Random(log.seed)));
+  }
+
+  InputReplay(byte[] bytes, MazeWorld world) {
+    this.world = world;
+    this.bytes = bytes;
+    this.position = InputLog.HEADER_BYTES;
+    this.tick = 0;
+    this.events = 0;
+    this.readNext();
+  }
+
+  // reads the next record, if there is one
+  void readNext() {
+    this.hasNext = this.position < this.bytes.length;
+    if (this.hasNext) {
+      long head = this.getVarint();
+      this.nextTicks = head >>> 4;
+      this.nextCode = (int) head & 15;
+      if (this.nextCode == InputLog.OTHER) {
+        this.nextX = (int) this.getVarint();
+      }
+      else if (this.nextCode == InputLog.CLICK) {
+        this.nextX = (int) this.getVarint();
+        this.nextY = (int) this.getVarint();
+      }
+    }
+  }
+
+  // reads a number written by InputLog.putVarint
+  long getVarint() {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = this.bytes[this.position];
+      this.position = this.position + 1;
+      value = value | ((long) (b & 0x7F) << shift);
+      shift = shift + 7;
+    } while (b < 0);
+    return value;
+  }
+
+  // plays the given number of ticks, skipping them once they can't change anything
+  void ticks(long count) {
+    for (long i = 0; i < count && this.world.ticking(); i = i + 1) {
+      this.world.onTick();
+    }
+    this.tick = this.tick + count;
+  }
+
+  // plays the next record's key or click
+  void play() {
+    if (this.nextCode == InputLog.CLICK) {
+      this.world.showPathTo(this.nextX, this.nextY);
+    }
+    else if (this.nextCode == InputLog.OTHER) {
+      if (this.nextX > 0) {
+        this.world.onKeyEvent(InputLog.OTHER_KEYS[this.nextX]);
+        this.events = this.events + 1;
+      }
+      return;
+    }
+    else {
+      this.world.onKeyEvent(InputLog.KEYS[this.nextCode]);
+    }
+    this.events = this.events + 1;
+  }
+
+  // plays everything that happened before the given tick ended, stopping early if the log
+  // does; returns the tick reached
+  long fastForward(long tick) {
+    while (this.hasNext) {
+      if (this.tick + this.nextTicks > tick) {
+        long count = tick - this.tick;
+        this.ticks(count);
+        this.nextTicks = this.nextTicks - count;
+        return this.tick;
+      }
+      this.ticks(this.nextTicks);
+      this.play();
+      this.readNext();
+    }
+    return this.tick;
+  }
+
+  // plays the whole log
+  void run() {
+    this.fastForward(Long.MAX_VALUE);
+  }
+
+  // replays every log given and prints whether each one completed its maze, then how many
+  // events were played per second
+  public static void main(String[] args) throws IOException {
+    long events = 0;
+    long started = System.nanoTime();
+    System.out.println("log,length,height,seed,ticks,events,completed");
+    for (String name : args) {
+      InputLog log = InputLog.read(Paths.get(name));
+      InputReplay replay = new InputReplay(log);
+      replay.run();
+      events = events + replay.events;
+      System.out.println(name + "," + log.length + "," + log.height + "," + log.seed + ","
+          + replay.tick + "," + replay.events + "," + replay.world.completed);
+    }
+    double seconds = (System.nanoTime() - started) / 1e9;
+    System.out.println(String.format("%d events in %.2f s, %.0f events/s", events, seconds,
+        events / seconds));
+  }
+}
+
+// MazeRun is what one headless run made of a maze: how long it took to generate and solve
+// and what the solver found
+class MazeRun {
+  static final String CSV_HEADER =
+      "seed,length,height,solver,found,path_cells,expanded,generate_ns,solve_ns,generator,"
+      + "generate_working_set_bytes";
+  long seed;
+  int length;
+  int height;
+  int solver;
+  boolean found;
+  // cells on the path from the start to the end, counting both
+  int pathCells;
+  int expanded;
+  long generateNanos;
+  long solveNanos;
+  String generator;
+  // working memory the generator is estimated to have needed, see
+  // MazeGenerator.workingSetBytes
+  long workingSetBytes;
+
+  MazeRun(long seed, int length, int height, int solver, boolean found, int pathCells,
+      int expanded, long generateNanos, long solveNanos, String generator, long workingSetBytes) {
+    this.seed = seed;
+    this.length = length;
+    this.height = height;
+    this.solver = solver;
+    this.found = found;
+    this.pathCells = pathCells;
+    this.expanded = expanded;
+    this.generateNanos = generateNanos;
+    this.solveNanos = solveNanos;
+    this.generator = generator;
+    this.workingSetBytes = workingSetBytes;
+  }
+
+  // gets this run as a line of CSV_HEADER's columns
+  String toCsv() {
+    return this.seed + "," + this.length + "," + this.height + ","
+        + MazeSearch.nameOf(this.solver) + "," + this.found + "," + this.pathCells + ","
+        + this.expanded + "," + this.generateNanos + "," + this.solveNanos + ","
+        + this.generator + "," + this.workingSetBytes;
+  }
+}
+
+// MazeEngine generates and solves mazes without a World, a board of Cells or any scene
+// a seed gives the same maze here as new MazeWorld(length, height, new Random(seed))
+class MazeEngine {
+  int length;
+  int height;
+  boolean preferHorizontal;
+  boolean preferVertical;
+  // name of the generator; each maze gets a generator of its own, so runs can go in parallel
+  String generator;
+
+  MazeEngine(int length, int height, boolean preferHorizontal, boolean preferVertical) {
+    this(length, height, preferHorizontal, preferVertical, "kruskal");
+  }
+
+  MazeEngine(int length, int height, boolean preferHorizontal, boolean preferVertical,
+      String generator) {
+    this.length = length;
+    this.height = height;
+    this.preferHorizontal = preferHorizontal;
+    this.preferVertical = preferVertical;
+    this.generator = generator;
+  }
+
+  // makes the maze for the given seed
+  MazeGrid generate(long seed) {
+    MazeGrid grid = new MazeGrid(this.length, this.height);
+    this.generate(grid, seed);
+    return grid;
+  }
+
+  // makes the maze for the given seed on the given grid, returning the generator that made it
+  MazeGenerator generate(MazeGrid grid, long seed) {
+    MazeGenerator generator = MazeGenerator.named(this.generator, grid.cells());
+    generator.generate(grid, new Random(seed), this.preferHorizontal, this.preferVertical);
+    return generator;
+  }
+
+  // makes the maze for the given seed and solves it from the top left to the bottom right
+  // with the given kind of search
+  MazeRun run(long seed, int solver) {
+    MazeGrid grid = new MazeGrid(this.length, this.height);
+    long start = System.nanoTime();
+    MazeGenerator generator = this.generate(grid, seed);
+    long generated = System.nanoTime();
+    boolean found;
+    int pathCells;
+    int expanded;
+    if (solver == MazeSearch.DEAD_END_FILL) {
+      // runs on this thread, since the batch already keeps every core busy
+      DeadEndFiller filler = new DeadEndFiller(grid, 0, grid.cells() - 1, null);
+      found = filler.run();
+      pathCells = filler.path().length;
+      expanded = filler.filled;
+    }
+    else {
+      MazeSearch search = MazeSearch.of(solver, grid, 0, grid.cells() - 1);
+      found = search.run();
+      pathCells = search.path().length;
+      expanded = search.expanded;
+    }
+    long solved = System.nanoTime();
+    return new MazeRun(seed, this.length, this.height, solver, found, pathCells,
+        expanded, generated - start, solved - generated, generator.name(),
+        generator.workingSetBytes());
+  }
+}
+
+// MazeBatch generates and solves a range of seeds on every core through a fork-join pool
+// and writes one CSV line per maze
+// run it with: java MazeBatch [--size 100x100] [--seeds 0:1000] [--solver bfs|dfs|astar|
+// bidirectional|fill] [--generator kruskal|boruvka|backtracker|prim|wilson] [--bias none|h|v]
+// [--threads N] [--out results.csv]
+class MazeBatch {
+  // mazes a task runs itself instead of splitting
+  static int BATCH = 4;
+
+  public static void main(String[] args) throws IOException {
+    int length = 100;
+    int height = 100;
+    long firstSeed = 0;
+    int count = 1000;
+    int solver = MazeSearch.BREADTH_FIRST;
+    String bias = "none";
+    String generator = "kruskal";
+    int threads = Runtime.getRuntime().availableProcessors();
+    String out = null;
+    for (int i = 0; i + 1 < args.length; i = i + 2) {
+      String value = args[i + 1];
+      if (args[i].equals("--size")) {
+        length = Integer.parseInt(value.split("x")[0]);
+        height = Integer.parseInt(value.split("x")[1]);
+      }
+      else if (args[i].equals("--seeds")) {
+        firstSeed = Long.parseLong(value.split(":")[0]);
+        count = (int) (Long.parseLong(value.split(":")[1]) - firstSeed);
+      }
+      else if (args[i].equals("--solver")) {
+        solver = MazeSearch.kindOf(value);
+      }
+      else if (args[i].equals("--generator")) {
+        MazeGenerator.named(value, 0);
+        generator = value;
+      }
+      else if (args[i].equals("--bias")) {
+        bias = value;
+      }
+      else if (args[i].equals("--threads")) {
+        threads = Integer.parseInt(value);
+      }
+      else if (args[i].equals("--out")) {
+        out = value;
+      }
+      else {
+        throw new IllegalArgumentException("unknown option " + args[i]);
+      }
+    }
+    MazeEngine engine = new MazeEngine(length, height, bias.equals("h"), bias.equals("v"),
+        generator);
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    long start = System.nanoTime();
+    MazeRun[] runs = runAll(engine, firstSeed, count, solver, pool);
+    long took = System.nanoTime() - start;
+    pool.shutdown();
+    PrintStream print = System.out;
+    if (out != null) {
+      print = new PrintStream(Files.newOutputStream(Paths.get(out)));
+    }
+    print.println(MazeRun.CSV_HEADER);
+    for (MazeRun run : runs) {
+      print.println(run.toCsv());
+    }
+    print.flush();
+    if (out != null) {
+      print.close();
+    }
+    System.err.println(String.format("%d mazes of %dx%d in %.2f s on %d threads (%.1f mazes/s)",
+        count, length, height, took / 1e9, threads, count / (took / 1e9)));
+  }
+
+  // runs the given number of seeds from firstSeed on the given pool, in seed order
+  static MazeRun[] runAll(MazeEngine engine, long firstSeed, int count, int solver,
+      ForkJoinPool pool) {
+    MazeRun[] runs = new MazeRun[count];
+    pool.invoke(new BatchTask(engine, firstSeed, solver, runs, 0, count));
+    return runs;
+  }
+}
+
+// BatchTask runs the seeds for runs[from] up to runs[to], splitting in half until few are left
+class BatchTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+  MazeEngine engine;
+  long firstSeed;
+  int solver;
+  MazeRun[] runs;
+  int from;
+  int to;
+
+  BatchTask(MazeEngine engine, long firstSeed, int solver, MazeRun[] runs, int from, int to) {
+    this.engine = engine;
+    this.firstSeed = firstSeed;
+    this.solver = solver;
+    this.runs = runs;
+    this.from = from;
+    this.to = to;
+  }
+
+  protected void compute() {
+    if (this.to - this.from <= MazeBatch.BATCH) {
+      for (int i = this.from; i < this.to; i = i + 1) {
+        this.runs[i] = this.engine.run(this.firstSeed + i, this.solver);
+      }
+    }
+    else {
+      int middle = (this.from + this.to) / 2;
+      invokeAll(new BatchTask(this.engine, this.firstSeed, this.solver, this.runs, this.from,
+          middle), new BatchTask(this.engine, this.firstSeed, this.solver, this.runs, middle,
+              this.to));
+    }
+  }
+}
+
+// TiledMaze is a maze too big to hold at once, split into square tiles that are made when
+// they are first needed and kept in a cache of the most recently used ones
+// each tile is a perfect maze of its own, made from a seed worked out from the maze's seed
+// and the tile's place, so a tile dropped from the cache comes back exactly the same
+// every tile but the top left one has one passage, to the tile on its left or the one above
+// it, picked the same way; the tiles form a tree, so the whole maze is perfect too
+class TiledMaze {
+  static final int TILE = 256;
+  static final int JOIN_NONE = 0;
+  static final int JOIN_LEFT = 1;
+  static final int JOIN_UP = 2;
+  int length;
+  int height;
+  long seed;
+  // cells along each side of a tile; tiles on the right and bottom edges may be smaller
+  int tileSize;
+  // how many tiles the cache holds
+  int capacity;
+  // tiles by their place, packed as tile column over tile row, least recently used first
+  LinkedHashMap<Long, MazeGrid> tiles;
+  // the tile asked for last, which most wall lookups ask for again
+  long lastKey;
+  MazeGrid lastTile;
+  KruskalGenerator generator;
+  long hits;
+  long misses;
+  long evictions;
+
+  TiledMaze(int length, int height, long seed) {
+    this(length, height, seed, TILE, 64);
+  }
+
+  TiledMaze(int length, int height, long seed, int tileSize, int capacity) {
+    this.length = length;
+    this.height = height;
+    this.seed = seed;
+    this.tileSize = tileSize;
+    this.capacity = capacity;
+    this.tiles = new LinkedHashMap<Long, MazeGrid>(16, 0.75f, true);
+    this.lastKey = -1;
+    this.lastTile = null;
+    this.generator = new KruskalGenerator();
+  }
+
+  // scrambles the bits of the given number, the way SplitMix64 finishes its output
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  // gets the seed of the tile at the given tile column and row
+  long tileSeed(int tileCol, int tileRow) {
+    return mix(this.seed ^ mix(((long) tileCol << 32) | (tileRow & 0xFFFFFFFFL)));
+  }
+
+  // gets the number of columns in the given column of tiles
+  int tileLength(int tileCol) {
+    return Math.min(this.tileSize, this.length - tileCol * this.tileSize);
+  }
+
+  // gets the number of rows in the given row of tiles
+  int tileHeight(int tileRow) {
+    return Math.min(this.tileSize, this.height - tileRow * this.tileSize);
+  }
+
+  // gets which neighbour the given tile has its passage to
+  int join(int tileCol, int tileRow) {
+    if (tileCol == 0 && tileRow == 0) {
+      return JOIN_NONE;
+    }
+    else if (tileRow == 0) {
+      return JOIN_LEFT;
+    }
+    else if (tileCol == 0) {
+      return JOIN_UP;
+    }
+    else if ((mix(this.tileSeed(tileCol, tileRow) + 1) & 1) == 0) {
+      return JOIN_LEFT;
+    }
+    else {
+      return JOIN_UP;
+    }
+  }
+
+  // gets where along the shared side the given tile's passage is: the row within the tile
+  // for a passage to the left, the column for one going up
+  int passage(int tileCol, int tileRow) {
+    int side = this.tileLength(tileCol);
+    if (this.join(tileCol, tileRow) == JOIN_LEFT) {
+      side = this.tileHeight(tileRow);
+    }
+    return (int) Long.remainderUnsigned(mix(this.tileSeed(tileCol, tileRow) + 2), side);
+  }
+
+  // gets the tile at the given tile column and row, making it if it isn't cached
+  // once the cache is full, the least recently used tile is dropped and its storage reused
+  MazeGrid tile(int tileCol, int tileRow) {
+    long key = ((long) tileCol << 32) | tileRow;
+    if (key == this.lastKey) {
+      this.hits = this.hits + 1;
+      return this.lastTile;
+    }
+    MazeGrid tile = this.tiles.get(key);
+    if (tile != null) {
+      this.hits = this.hits + 1;
+    }
+    else {
+      this.misses = this.misses + 1;
+      int tileLength = this.tileLength(tileCol);
+      int tileHeight = this.tileHeight(tileRow);
+      if (this.tiles.size() >= this.capacity) {
+        Long eldest = this.tiles.keySet().iterator().next();
+        MazeGrid dropped = this.tiles.remove(eldest);
+        this.evictions = this.evictions + 1;
+        if (dropped.length == tileLength && dropped.height == tileHeight) {
+          tile = dropped;
+          tile.closeAll();
+        }
+      }
+      if (tile == null) {
+        tile = new MazeGrid(tileLength, tileHeight);
+      }
+      this.generator.generate(tile, new Random(this.tileSeed(tileCol, tileRow)), false,
+          false);
+      this.tiles.put(key, tile);
+    }
+    this.lastKey = key;
+    this.lastTile = tile;
+    return tile;
+  }
+
+  // is the given side of the cell in the given column and row walled off?
+  boolean hasWall(int col, int row, byte side) {
+    int tileCol = col / this.tileSize;
+    int tileRow = row / this.tileSize;
+    int localCol = col % this.tileSize;
+    int localRow = row % this.tileSize;
+    if (side == MazeGrid.LEFT && localCol == 0) {
+      return col == 0 || this.join(tileCol, tileRow) != JOIN_LEFT
+          || this.passage(tileCol, tileRow) != localRow;
+    }
+    else if (side == MazeGrid.RIGHT && localCol == this.tileLength(tileCol) - 1) {
+      return col == this.length - 1 || this.join(tileCol + 1, tileRow) != JOIN_LEFT
+          || this.passage(tileCol + 1, tileRow) != localRow;
+    }
+    else if (side == MazeGrid.TOP && localRow == 0) {
+      return row == 0 || this.join(tileCol, tileRow) != JOIN_UP
+          || this.passage(tileCol, tileRow) != localCol;
+    }
+    else if (side == MazeGrid.BOTTOM && localRow == this.tileHeight(tileRow) - 1) {
+      return row == this.height - 1 || this.join(tileCol, tileRow + 1) != JOIN_UP
+          || this.passage(tileCol, tileRow + 1) != localCol;
+    }
+    MazeGrid tile = this.tile(tileCol, tileRow);
+    return tile.hasWall(tile.id(localCol, localRow), side);
+  }
+}
+
+// TiledMazeWorld lets the player walk a TiledMaze with the arrow keys, from the top left to
+// the bottom right, drawing only the window of cells around them
+// only the tiles near the player are ever made, so the maze can be far bigger than memory
+// run it with: java TiledMazeWorld [size such as 100000x100000] [seed]
+class TiledMazeWorld extends World {
+  static final int VIEW_COLS = 100;
+  static final int VIEW_ROWS = 70;
+  static final WorldImage TOP_WALL = new LineImage(new Posn(MazeWorld.SCALE, 0), Color.black);
+  static final WorldImage LEFT_WALL = new LineImage(new Posn(0, MazeWorld.SCALE),
+      Color.black);
+  static final WorldImage PLAYER = new RectangleImage(MazeWorld.SCALE, MazeWorld.SCALE,
+      "solid", Color.gray);
+  static final WorldImage GOAL = new RectangleImage(MazeWorld.SCALE, MazeWorld.SCALE,
+      "solid", Color.magenta);
+  TiledMaze maze;
+  int curCol;
+  int curRow;
+  int moves;
+  boolean completed;
+
+  TiledMazeWorld(TiledMaze maze) {
+    this.maze = maze;
+    this.curCol = 0;
+    this.curRow = 0;
+    this.moves = 0;
+    this.completed = false;
+  }
+
+  public static void main(String[] args) {
+    int length = 100000;
+    int height = 100000;
+    long seed = 1;
+    if (args.length > 0) {
+      length = Integer.parseInt(args[0].split("x")[0]);
+      height = Integer.parseInt(args[0].split("x")[1]);
+    }
+    if (args.length > 1) {
+      seed = Long.parseLong(args[1]);
+    }
+    new TiledMazeWorld(new TiledMaze(length, height, seed)).bigBang(
+        VIEW_COLS * MazeWorld.SCALE, VIEW_ROWS * MazeWorld.SCALE, .01);
+  }
+
+  // moves the player with the arrow keys, unless a wall is in the way
+  public void onKeyEvent(String key) {
+    if (this.completed) {
+      return;
+    }
+    if (key.equals("up") && !this.maze.hasWall(curCol, curRow, MazeGrid.TOP)) {
+      this.curRow = this.curRow - 1;
+      this.moves = this.moves + 1;
+    }
+    if (key.equals("down") && !this.maze.hasWall(curCol, curRow, MazeGrid.BOTTOM)) {
+      this.curRow = this.curRow + 1;
+      this.moves = this.moves + 1;
+    }
+    if (key.equals("left") && !this.maze.hasWall(curCol, curRow, MazeGrid.LEFT)) {
+      this.curCol = this.curCol - 1;
+      this.moves = this.moves + 1;
+    }
+    if (key.equals("right") && !this.maze.hasWall(curCol, curRow, MazeGrid.RIGHT)) {
+      this.curCol = this.curCol + 1;
+      this.moves = this.moves + 1;
+    }
+    this.completed = this.curCol == this.maze.length - 1 && this.curRow == this.maze.height - 1;
+  }
+
+  // gets the column at the left of the window, which keeps the player in the middle until
+  // the window reaches the edge of the maze
+  int viewCol() {
+    return Math.max(0, Math.min(this.curCol - VIEW_COLS / 2, this.maze.length - VIEW_COLS));
+  }
+
+  // gets the row at the top of the window
+  int viewRow() {
+    return Math.max(0, Math.min(this.curRow - VIEW_ROWS / 2, this.maze.height - VIEW_ROWS));
+  }
+
+  // draws the cells in the window around the player
+  public WorldScene makeScene() {
+    if (this.completed) {
+      WorldScene done = new WorldScene(VIEW_COLS * MazeWorld.SCALE,
+          VIEW_ROWS * MazeWorld.SCALE);
+      done.placeImageXY(new TextImage("Maze is complete in " + this.moves + " moves!", 20,
+          Color.black), VIEW_COLS * MazeWorld.SCALE / 2, VIEW_ROWS * MazeWorld.SCALE / 2);
+      return done;
+    }
+    WorldScene scene = new WorldScene(VIEW_COLS * MazeWorld.SCALE, VIEW_ROWS * MazeWorld.SCALE);
+    int left = this.viewCol();
+    int top = this.viewRow();
+    int cols = Math.min(VIEW_COLS, this.maze.length);
+    int rows = Math.min(VIEW_ROWS, this.maze.height);
+    int half = MazeWorld.SCALE / 2;
+    scene.placeImageXY(PLAYER, (this.curCol - left) * MazeWorld.SCALE + half,
+        (this.curRow - top) * MazeWorld.SCALE + half);
+    int goalCol = this.maze.length - 1 - left;
+    int goalRow = this.maze.height - 1 - top;
+    if (goalCol < cols && goalRow < rows) {
+      scene.placeImageXY(GOAL, goalCol * MazeWorld.SCALE + half,
+          goalRow * MazeWorld.SCALE + half);
+    }
+    for (int row = 0; row < rows; row = row + 1) {
+      for (int col = 0; col < cols; col = col + 1) {
+        int x = col * MazeWorld.SCALE + half;
+        int y = row * MazeWorld.SCALE + half;
+        if (this.maze.hasWall(left + col, top + row, MazeGrid.TOP)) {
+          scene.placeImageXY(TOP_WALL, x, y - half);
+        }
+        if (this.maze.hasWall(left + col, top + row, MazeGrid.LEFT)) {
+          scene.placeImageXY(LEFT_WALL, x - half, y);
+        }
+        if (col == cols - 1 && this.maze.hasWall(left + col, top + row, MazeGrid.RIGHT)) {
+          scene.placeImageXY(LEFT_WALL, x + half, y);
+        }
+        if (row == rows - 1 && this.maze.hasWall(left + col, top + row, MazeGrid.BOTTOM)) {
+          scene.placeImageXY(TOP_WALL, x, y + half);
+        }
+      }
+    }
+    return scene;
+  }
+}
+
+// SharedMaze is one maze that many sessions play at once
+// nothing in it changes after it is made, so sessions on any thread can read it
+class SharedMaze {
+  MazeWalls maze;
+  int start;
+  int goal;
+  // every cell's distance from the goal, for hints and the way out
+  DistanceField distances;
+
+  SharedMaze(MazeWalls maze) {
+    this.maze = maze;
+    this.start = 0;
+    this.goal = maze.cells() - 1;
+    this.distances = new DistanceField(maze, this.goal);
+  }
+}
+
+// MazeSession is one player's game on a shared maze, driven by the same keys as MazeWorld
+// everything that changes as the player plays is kept here, never in the shared maze
+// keys come from handle, or one per line through the inbox when the session runs on a thread
+class MazeSession {
+  // sent to the inbox to end a session's thread
+  static final String QUIT = "quit";
+  SharedMaze shared;
+  // the cell the player is on
+  int cell;
+  int moves;
+  boolean completed;
+  // the search that is running or ran last, null if none has started
+  MazeSearch search;
+  int[] next;
+  BlockingQueue<String> inbox;
+  BlockingQueue<String> outbox;
+
+  MazeSession(SharedMaze shared) {
+    this.shared = shared;
+    this.next = new int[4];
+    this.inbox = new LinkedBlockingQueue<String>();
+    this.outbox = new LinkedBlockingQueue<String>();
+    this.restart();
+  }
+
+  // puts the player back at the start with no search
+  void restart() {
+    this.cell = this.shared.start;
+    this.moves = 0;
+    this.completed = false;
+    this.search = null;
+  }
+
+  // takes keys from the inbox and puts each reply in the outbox, until QUIT or an interrupt
+  void run() {
+    try {
+      String key = this.inbox.take();
+      while (!key.equals(QUIT)) {
+        this.outbox.put(this.handle(key));
+        key = this.inbox.take();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // handles the given key and returns a one-line reply saying what changed
+  // "tick" moves a running search on by as many cells as a MazeWorld tick does
+  String handle(String key) {
+    MazeWalls maze = this.shared.maze;
+    if (key.equals("up") || key.equals("down") || key.equals("left") || key.equals("right")) {
+      byte side = MazeGrid.TOP;
+      int to = this.cell - maze.length();
+      if (key.equals("down")) {
+        side = MazeGrid.BOTTOM;
+        to = this.cell + maze.length();
+      }
+      else if (key.equals("left")) {
+        side = MazeGrid.LEFT;
+        to = this.cell - 1;
+      }
+      else if (key.equals("right")) {
+        side = MazeGrid.RIGHT;
+        to = this.cell + 1;
+      }
+      if (!this.completed && !maze.hasWall(this.cell, side)) {
+        this.cell = to;
+        this.moves = this.moves + 1;
+        this.completed = this.cell == this.shared.goal;
+      }
+      if (this.completed) {
+        return "done " + this.moves;
+      }
+      return "at " + this.cell;
+    }
+    else if (key.equals("b") || key.equals("d") || key.equals("a") || key.equals("m")) {
+      int kind = MazeSearch.BREADTH_FIRST;
+      if (key.equals("d")) {
+        kind = MazeSearch.DEPTH_FIRST;
+      }
+      else if (key.equals("a")) {
+        kind = MazeSearch.A_STAR;
+      }
+      else if (key.equals("m")) {
+        kind = MazeSearch.BIDIRECTIONAL;
+      }
+      this.search = MazeSearch.of(kind, maze, this.cell, this.shared.goal);
+      return "search " + MazeSearch.nameOf(kind);
+    }
+    else if (key.equals("tick") && this.search != null) {
+      this.search.step(MazeWorld.STEPS_PER_TICK);
+      return "expanded " + this.search.expanded;
+    }
+    else if (key.equals("p") && this.search != null) {
+      if (this.search.paused) {
+        this.search.resume();
+        return "resumed";
+      }
+      this.search.pause();
+      return "paused";
+    }
+    else if (key.equals("escape") && this.search != null) {
+      this.search.cancel();
+      return "cancelled";
+    }
+    else if (key.equals("enter")) {
+      if (this.search != null && !this.search.cancelled) {
+        this.search.run();
+        return "path " + this.search.path().length;
+      }
+      return "path " + (this.shared.distances.distance[this.cell] + 1);
+    }
+    else if (key.equals("n")) {
+      return "hint " + this.shared.distances.toward(this.cell, this.next);
+    }
+    else if (key.equals("r")) {
+      this.restart();
+      return "at " + this.cell;
+    }
+    return "unknown " + key;
+  }
+}
+
+// SessionServer runs sessions with no window, each on a thread of its own: a virtual thread
+// where the JVM has them, or a plain one from a cached pool where it doesn't
+// sessions either talk through their queues, or one per connection to a local socket
+// run it with: java SessionServer [port] [size such as 200x200] [seed]
+class SessionServer {
+  SharedMaze shared;
+  ExecutorService threads;
+
+  SessionServer(SharedMaze shared) {
+    this.shared = shared;
+    this.threads = threadPerTask();
+  }
+
+  // gets an executor that starts a virtual thread for every task, looking it up by name so
+  // this still builds and runs on a JVM without virtual threads
+  static ExecutorService threadPerTask() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    }
+    catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  // starts a new session on its own thread, fed through its inbox
+  MazeSession open() {
+    MazeSession session = new MazeSession(this.shared);
+    this.threads.execute(() -> session.run());
+    return session;
+  }
+
+  // accepts connections on the given socket until it is closed, playing a session on each
+  void serve(ServerSocket socket) throws IOException {
+    while (!socket.isClosed()) {
+      Socket connection;
+      try {
+        connection = socket.accept();
+      }
+      catch (SocketException e) {
+        return;
+      }
+      this.threads.execute(() -> this.talk(connection));
+    }
+  }
+
+  // plays one session over the given connection, reading a key per line and writing a reply
+  // per line, until the other end sends QUIT or hangs up
+  void talk(Socket connection) {
+    MazeSession session = new MazeSession(this.shared);
+    try (Socket open = connection;
+        BufferedReader in = new BufferedReader(new InputStreamReader(open.getInputStream(),
+            StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(open.getOutputStream(),
+            StandardCharsets.UTF_8), true)) {
+      String line = in.readLine();
+      while (line != null && !line.equals(MazeSession.QUIT)) {
+        out.println(session.handle(line.trim()));
+        line = in.readLine();
+      }
+    }
+    catch (IOException e) {
+      // the player went away; their session goes with them
+    }
+  }
+
+  // stops every session's thread
+  void close() {
+    this.threads.shutdownNow();
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = 7070;
+    int length = 100;
+    int height = 100;
+    long seed = 1;
+    if (args.length > 0) {
+      port = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1) {
+      length = Integer.parseInt(args[1].split("x")[0]);
+      height = Integer.parseInt(args[1].split("x")[1]);
+    }
+    if (args.length > 2) {
+      seed = Long.parseLong(args[2]);
+    }
+    SessionServer server = new SessionServer(new SharedMaze(
+        new MazeEngine(length, height, false, false).generate(seed)));
+    ServerSocket socket = new ServerSocket(port, 256, InetAddress.getLoopbackAddress());
+    System.err.println("serving " + length + "x" + height + " maze " + seed + " on port " + port);
+    server.serve(socket);
+  }
+}
+
+// SessionLoadTest drives many sessions at once through their queues, each player sending a
+// key and waiting for the reply before sending the next, and reports the events handled per
+// second and the latency of the replies
+// run it with: java SessionLoadTest [sessions] [events per session] [size such as 200x200]
+class SessionLoadTest {
+  // what the simulated players press: moves and hints, and now and then one of the search
+  // keys, each of which can walk the whole maze
+  static final String[] KEYS = new String[] { "up", "down", "left", "right", "n" };
+  static final String[] SEARCH_KEYS = new String[] { "a", "tick", "enter" };
+  static int SEARCH_PERCENT = 1;
+  int sessions;
+  long events;
+  long nanos;
+  // the time each event took to be answered, sorted
+  long[] latencies;
+
+  SessionLoadTest(int sessions, long nanos, long[] latencies) {
+    this.sessions = sessions;
+    this.events = latencies.length;
+    this.nanos = nanos;
+    this.latencies = latencies;
+  }
+
+  public static void main(String[] args) throws InterruptedException, ExecutionException {
+    int sessions = 1000;
+    int events = 1000;
+    int length = 200;
+    int height = 200;
+    if (args.length > 0) {
+      sessions = Integer.parseInt(args[0]);
+    }
+    if (args.length > 1) {
+      events = Integer.parseInt(args[1]);
+    }
+    if (args.length > 2) {
+      length = Integer.parseInt(args[2].split("x")[0]);
+      height = Integer.parseInt(args[2].split("x")[1]);
+    }
+    SessionLoadTest result = run(sessions, events, length, height, 1);
+    System.out.println(String.format(
+        "%d sessions, %d events in %.2f s: %.0f events/s, p50 %.1f us, p99 %.1f us, max %.1f us",
+        result.sessions, result.events, result.nanos / 1e9, result.eventsPerSecond(),
+        result.percentile(50) / 1e3, result.percentile(99) / 1e3, result.percentile(100) / 1e3));
+  }
+
+  // plays the given number of sessions on one shared maze of the given size, each sending the
+  // given number of keys
+  static SessionLoadTest run(int sessions, int events, int length, int height, long seed)
+      throws InterruptedException, ExecutionException {
+    SessionServer server = new SessionServer(new SharedMaze(
+        new MazeEngine(length, height, false, false).generate(seed)));
+    ExecutorService players = SessionServer.threadPerTask();
+    ArrayList<Future<long[]>> played = new ArrayList<Future<long[]>>();
+    long start = System.nanoTime();
+    for (int i = 0; i < sessions; i = i + 1) {
+      MazeSession session = server.open();
+      Random rand = new Random(seed + i);
+      played.add(players.submit(() -> play(session, rand, events)));
+    }
+    long[] latencies = new long[sessions * events];
+    for (int i = 0; i < sessions; i = i + 1) {
+      System.arraycopy(played.get(i).get(), 0, latencies, i * events, events);
+    }
+    long took = System.nanoTime() - start;
+    players.shutdown();
+    server.close();
+    Arrays.sort(latencies);
+    return new SessionLoadTest(sessions, took, latencies);
+  }
+
+  // sends the given number of random keys to the session one at a time, then QUIT
+  // returns how long each took to be answered
+  static long[] play(MazeSession session, Random rand, int events)
+      throws InterruptedException {
+    long[] latencies = new long[events];
+    for (int i = 0; i < events; i = i + 1) {
+      String key = KEYS[rand.nextInt(KEYS.length)];
+      if (rand.nextInt(100) < SEARCH_PERCENT) {
+        key = SEARCH_KEYS[rand.nextInt(SEARCH_KEYS.length)];
+      }
+      long sent = System.nanoTime();
+      session.inbox.put(key);
+      session.outbox.take();
+      latencies[i] = System.nanoTime() - sent;
+    }
+    session.inbox.put(MazeSession.QUIT);
+    return latencies;
+  }
+
+  // gets the events handled per second
+  double eventsPerSecond() {
+    return this.events / (this.nanos / 1e9);
+  }
+
+  // gets the latency that the given percent of events were answered within, in nanoseconds
+  long percentile(double percent) {
+    if (this.latencies.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percent / 100 * this.latencies.length) - 1;
+    return this.latencies[Math.max(0, Math.min(index, this.latencies.length - 1))];
+  }
+}
+
+// counts values in buckets that grow with the value, the way HdrHistogram does: every power of
+// two is split into eight buckets, so a percentile is never more than an eighth too high
+// recording is a few adds with no locks, so it can sit on hot paths
+class Histogram {
+  static final int SUB_BUCKETS = 8;
+  // values below eight get a bucket each, then eight per power of two up to 2^62
+  static final int BUCKETS = 61 * SUB_BUCKETS;
+  AtomicLongArray counts;
+  LongAdder count;
+  LongAdder sum;
+  LongAccumulator max;
+
+  Histogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new LongAdder();
+    this.sum = new LongAdder();
+    this.max = new LongAccumulator(Math::max, 0);
+  }
+
+  // gets the bucket the given value falls into
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) Math.max(value, 0);
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+    return (exponent - 2) * SUB_BUCKETS + sub;
+  }
+
+  // gets the largest value that falls into the given bucket
+  static long highestIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + 2;
+    long width = 1L << (exponent - 3);
+    return (SUB_BUCKETS + bucket % SUB_BUCKETS) * width + width - 1;
+  }
+
+  // counts the given value
+  void record(long value) {
+    this.counts.incrementAndGet(bucketOf(value));
+    this.count.increment();
+    this.sum.add(value);
+    this.max.accumulate(value);
+  }
+
+  // counts the nanoseconds since the given start, if metrics are on
+  void since(long start) {
+    if (MazeMetrics.ENABLED) {
+      this.record(System.nanoTime() - start);
+    }
+  }
+
+  // gets the number of values counted
+  long count() {
+    return this.count.sum();
+  }
+
+  // gets the mean of the values counted, or 0 if there are none
+  double mean() {
+    long count = this.count();
+    if (count == 0) {
+      return 0;
+    }
+    return (double) this.sum.sum() / count;
+  }
+
+  // gets the largest value counted
+  long max() {
+    return this.max.get();
+  }
+
+  // gets a value at least as large as the given percent of the values counted,
+  // and never larger than the largest of them
+  long percentile(double percent) {
+    long count = this.count();
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percent / 100 * count));
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket = bucket + 1) {
+      seen = seen + this.counts.get(bucket);
+      if (seen >= rank) {
+        return Math.min(highestIn(bucket), this.max());
+      }
+    }
+    return this.max();
+  }
+
+  // forgets every value counted
+  void reset() {
+    for (int bucket = 0; bucket < BUCKETS; bucket = bucket + 1) {
+      this.counts.set(bucket, 0);
+    }
+    this.count.reset();
+    this.sum.reset();
+    this.max.reset();
+  }
+}
+
+// MazeMetrics counts where generation, searching and drawing spend their time
+// it's off unless the JVM runs with -Dmaze.metrics=true; the switch is a static final, so
+// with it off the JIT drops every check and timer and nothing is measured at all
+// with it on, the numbers are served over JMX as maze:type=Metrics, and with
+// -Dmaze.metrics.jfr=true too, frames, searches and generations go to Flight Recorder as events
+class MazeMetrics implements DynamicMBean {
+  static final boolean ENABLED = Boolean.getBoolean("maze.metrics");
+  static final boolean JFR = ENABLED && Boolean.getBoolean("maze.metrics.jfr");
+  static final String OBJECT_NAME = "maze:type=Metrics";
+  static final MazeMetrics METRICS = MazeMetrics.started();
+  // nanoseconds per call
+  Histogram addEdges;
+  Histogram kruskal;
+  Histogram generate;
+  Histogram breadthFirst;
+  Histogram depthFirst;
+  Histogram makeScene;
+  Histogram onTick;
+  Histogram onKeyEvent;
+  // images made and cells drawn for each frame
+  Histogram frameImages;
+  Histogram frameCells;
+  // cells expanded and most cells waiting at once, for each finished search
+  Histogram searchNodes;
+  Histogram searchFrontier;
+  // trace cells coloured on each tick that animated a search
+  Histogram tickCells;
+  LongAdder nodesExpanded;
+  LongAdder frames;
+  LongAdder imagesAllocated;
+  // ticks missed while an animation was running, see AnimationScheduler
+  LongAdder droppedFrames;
+  LongAccumulator frontierPeak;
+  LinkedHashMap<String, Histogram> histograms;
+
+  MazeMetrics() {
+    this.histograms = new LinkedHashMap<String, Histogram>();
+    this.addEdges = this.histogram("addEdges");
+    this.kruskal = this.histogram("kruskal");
+    this.generate = this.histogram("generate");
+    this.breadthFirst = this.histogram("breadthFirst");
+    this.depthFirst = this.histogram("depthFirst");
+    this.makeScene = this.histogram("makeScene");
+    this.onTick = this.histogram("onTick");
+    this.onKeyEvent = this.histogram("onKeyEvent");
+    this.frameImages = this.histogram("frameImages");
+    this.frameCells = this.histogram("frameCells");
+    this.searchNodes = this.histogram("searchNodes");
+    this.searchFrontier = this.histogram("searchFrontier");
+    this.tickCells = this.histogram("tickCells");
+    this.nodesExpanded = new LongAdder();
+    this.frames = new LongAdder();
+    this.imagesAllocated = new LongAdder();
+    this.droppedFrames = new LongAdder();
+    this.frontierPeak = new LongAccumulator(Math::max, 0);
+  }
+
+  // makes the metrics everything records to, and serves them over JMX if metrics are on
+  static MazeMetrics started() {
+    MazeMetrics metrics = new MazeMetrics();
+    if (ENABLED) {
+      try {
+        metrics.register(ManagementFactory.getPlatformMBeanServer(),
+            new ObjectName(OBJECT_NAME));
+      }
+      catch (JMException e) {
+        throw new IllegalStateException("can't serve metrics as " + OBJECT_NAME, e);
+      }
+    }
+    return metrics;
+  }
+
+  // makes a histogram with the given name
+  Histogram histogram(String name) {
+    Histogram histogram = new Histogram();
+    this.histograms.put(name, histogram);
+    return histogram;
+  }
+
+  // gets the time to measure from, or 0 if metrics are off
+  static long start() {
+    if (ENABLED) {
+      return System.nanoTime();
+    }
+    return 0;
+  }
+
+  // counts a frame that made the given number of images and drew the given number of cells
+  void frame(long start, int images, int cells) {
+    this.makeScene.since(start);
+    this.frameImages.record(images);
+    this.frameCells.record(cells);
+    this.frames.increment();
+    this.imagesAllocated.add(images);
+    if (JFR) {
+      FrameEvent event = new FrameEvent();
+      event.images = images;
+      event.cells = cells;
+      event.nanos = System.nanoTime() - start;
+      event.commit();
+    }
+  }
+
+  // counts the given number of cells the given search expanded since it was last counted,
+  // and the search itself if it just finished
+  void expanded(MazeSearch search, int expanded, boolean finished) {
+    this.nodesExpanded.add(expanded);
+    this.frontierPeak.accumulate(search.frontierPeak);
+    if (finished) {
+      this.searchNodes.record(search.expanded);
+      this.searchFrontier.record(search.frontierPeak);
+      if (JFR) {
+        SearchEvent event = new SearchEvent();
+        event.search = MazeSearch.nameOf(search.kind());
+        event.cells = search.grid.cells();
+        event.expanded = search.expanded;
+        event.frontierPeak = search.frontierPeak;
+        event.found = search.found;
+        event.commit();
+      }
+    }
+  }
+
+  // counts a maze the given generator made, starting at the given time
+  void generated(MazeGenerator generator, int cells, long start) {
+    this.generate.since(start);
+    if (JFR) {
+      GenerationEvent event = new GenerationEvent();
+      event.generator = generator.name();
+      event.cells = cells;
+      event.nanos = System.nanoTime() - start;
+      event.commit();
+    }
+  }
+
+  // serves these metrics from the given server under the given name
+  void register(MBeanServer server, ObjectName name) throws JMException {
+    server.registerMBean(this, name);
+  }
+
+  // prints every histogram and counter
+  void report(PrintStream out) {
+    out.println(String.format("%-15s %10s %12s %12s %12s %12s", "metric", "count", "mean",
+        "p50", "p99", "max"));
+    for (String name : this.histograms.keySet()) {
+      Histogram h = this.histograms.get(name);
+      out.println(String.format("%-15s %10d %12.1f %12d %12d %12d", name, h.count(), h.mean(),
+          h.percentile(50), h.percentile(99), h.max()));
+    }
+    out.println(String.format("%-15s %10d", "nodesExpanded", this.nodesExpanded.sum()));
+    out.println(String.format("%-15s %10d", "frontierPeak", this.frontierPeak.get()));
+    out.println(String.format("%-15s %10d", "frames", this.frames.sum()));
+    out.println(String.format("%-15s %10d", "imagesAllocated", this.imagesAllocated.sum()));
+    out.println(String.format("%-15s %10d", "droppedFrames", this.droppedFrames.sum()));
+  }
+
+  // forgets everything counted so far
+  void reset() {
+    for (Histogram h : this.histograms.values()) {
+      h.reset();
+    }
+    this.nodesExpanded.reset();
+    this.frames.reset();
+    this.imagesAllocated.reset();
+    this.droppedFrames.reset();
+    this.frontierPeak.reset();
+  }
+
+  // gets the attribute with the given name: a counter, or a histogram's name followed by
+  // .count, .mean, .p50, .p90, .p99, .p999 or .max
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    if (attribute.equals("nodesExpanded")) {
+      return this.nodesExpanded.sum();
+    }
+    if (attribute.equals("frontierPeak")) {
+      return this.frontierPeak.get();
+    }
+    if (attribute.equals("frames")) {
+      return this.frames.sum();
+    }
+    if (attribute.equals("imagesAllocated")) {
+      return this.imagesAllocated.sum();
+    }
+    if (attribute.equals("droppedFrames")) {
+      return this.droppedFrames.sum();
+    }
+    int dot = attribute.indexOf('.');
+    if (dot > 0 && this.histograms.containsKey(attribute.substring(0, dot))) {
+      Histogram h = this.histograms.get(attribute.substring(0, dot));
+      String statistic = attribute.substring(dot + 1);
+      if (statistic.equals("count")) {
+        return h.count();
+      }
+      if (statistic.equals("mean")) {
+        return h.mean();
+      }
+      if (statistic.equals("max")) {
+        return h.max();
+      }
+      if (statistic.equals("p50")) {
+        return h.percentile(50);
+      }
+      if (statistic.equals("p90")) {
+        return h.percentile(90);
+      }
+      if (statistic.equals("p99")) {
+        return h.percentile(99);
+      }
+      if (statistic.equals("p999")) {
+        return h.percentile(99.9);
+      }
+    }
+    throw new AttributeNotFoundException(attribute);
+  }
+
+  // gets the attributes with the given names, leaving out any that don't exist
+  public AttributeList getAttributes(String[] attributes) {
+    AttributeList list = new AttributeList();
+    for (String attribute : attributes) {
+      try {
+        list.add(new Attribute(attribute, this.getAttribute(attribute)));
+      }
+      catch (AttributeNotFoundException e) {
+        // the JMX contract is to leave it out
+      }
+    }
+    return list;
+  }
+
+  // metrics can't be set
+  public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+    throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+  }
+
+  // metrics can't be set, so none of the given attributes are
+  public AttributeList setAttributes(AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  // runs the operation with the given name; reset is the only one
+  public Object invoke(String operation, Object[] params, String[] signature)
+      throws ReflectionException {
+    if (operation.equals("reset")) {
+      this.reset();
+      return null;
+    }
+    throw new ReflectionException(new NoSuchMethodException(operation));
+  }
+
+  // describes every attribute and the reset operation
+  public MBeanInfo getMBeanInfo() {
+    ArrayList<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+    for (String counter : new String[] { "nodesExpanded", "frontierPeak", "frames",
+        "imagesAllocated", "droppedFrames" }) {
+      attributes.add(new MBeanAttributeInfo(counter, "long", counter, true, false, false));
+    }
+    for (String name : this.histograms.keySet()) {
+      for (String statistic : new String[] { "count", "p50", "p90", "p99", "p999", "max" }) {
+        attributes.add(new MBeanAttributeInfo(name + "." + statistic, "long",
+            statistic + " of " + name, true, false, false));
+      }
+      attributes.add(new MBeanAttributeInfo(name + ".mean", "double", "mean of " + name, true,
+          false, false));
+    }
+    MBeanOperationInfo reset = new MBeanOperationInfo("reset", "forgets everything counted",
+        new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+    return new MBeanInfo(MazeMetrics.class.getName(), "maze generation, search and frame metrics",
+        attributes.toArray(new MBeanAttributeInfo[0]), null,
+        new MBeanOperationInfo[] { reset }, null);
+  }
+}
+
+// a frame drawn by MazeWorld, for Flight Recorder
+@Name("maze.Frame")
+@Label("Maze Frame")
+@Category("Maze")
+class FrameEvent extends Event {
+  @Label("Images Made")
+  int images;
+  @Label("Cells Drawn")
+  int cells;
+  @Label("Nanoseconds")
+  long nanos;
+}
+
+// a search that finished, for Flight Recorder
+@Name("maze.Search")
+@Label("Maze Search")
+@Category("Maze")
+class SearchEvent extends Event {
+  @Label("Search")
+  String search;
+  @Label("Cells")
+  int cells;
+  @Label("Cells Expanded")
+  int expanded;
+  @Label("Frontier Peak")
+  int frontierPeak;
+  @Label("Found")
+  boolean found;
+}
+
+// a maze generated by MazeWorld, for Flight Recorder
+@Name("maze.Generation")
+@Label("Maze Generation")
+@Category("Maze")
+class GenerationEvent extends Event {
+  @Label("Generator")
+  String generator;
+  @Label("Cells")
+  int cells;
+  @Label("Nanoseconds")
+  long nanos;
+}
+
+// BenchmarkResult is the timing of one benchmark on one maze size
+class BenchmarkResult {
+  String name;
+  int length;
+  int height;
+  int operations;
+  double nanosPerOp;
+  // -1 if the JVM can't count allocated bytes
+  double bytesPerOp;
+
+  BenchmarkResult(String name, int length, int height, int operations, double nanosPerOp,
+      double bytesPerOp) {
+    this.name = name;
+    this.length = length;
+    this.height = height;
+    this.operations = operations;
+    this.nanosPerOp = nanosPerOp;
+    this.bytesPerOp = bytesPerOp;
+  }
+
+  // gets the number of operations per second
+  double throughput() {
+    return 1e9 / this.nanosPerOp;
+  }
+
+  // gets the time per cell, which stays flat if the operation scales linearly
+  double nanosPerCell() {
+    return this.nanosPerOp / ((double) this.length * this.height);
+  }
+
+  // gets the bytes allocated per second while the operation runs
+  double allocationRate() {
+    return this.bytesPerOp * this.throughput();
+  }
+}
+
+// MazeBenchmark times generation, solving and drawing on seeded mazes of growing size,
+// reporting throughput, bytes allocated and time per cell so regressions show up
+// run it with: java MazeBenchmark [LENGTHxHEIGHT ...]
+class MazeBenchmark {
+  static final String[] SIZES = new String[] { "10x10", "50x50", "100x100", "500x500",
+      "1000x1000", "2000x2000" };
+  static final long SEED = 42;
+  static int WARMUP_ROUNDS = 3;
+  static int ROUNDS = 5;
+  // each round keeps running the operation until this much time has been measured
+  static long ROUND_NANOS = 100_000_000L;
+  // the bytes taking the allocations costs the calling thread, or -1 if not found yet
+  static long countingBytes = -1;
+
+  public static void main(String[] args) {
+    String[] sizes = SIZES;
+    if (args.length > 0) {
+      sizes = args;
+    }
+    System.out.println(String.format("%-14s %11s %14s %12s %12s %12s", "benchmark", "size",
+        "ops/s", "ns/cell", "bytes/op", "MB/s alloc"));
+    ArrayList<BenchmarkResult> previous = new ArrayList<BenchmarkResult>();
+    for (String size : sizes) {
+      String[] parts = size.split("x");
+      ArrayList<BenchmarkResult> results = run(Integer.parseInt(parts[0]),
+          Integer.parseInt(parts[1]));
+      for (int i = 0; i < results.size(); i = i + 1) {
+        BenchmarkResult r = results.get(i);
+        String growth = "";
+        if (i < previous.size()) {
+          growth = String.format("  x%.2f per cell vs last size",
+              r.nanosPerCell() / previous.get(i).nanosPerCell());
+        }
+        System.out.println(String.format("%-14s %11s %14.1f %12.2f %12.0f %12.1f%s", r.name,
+            size, r.throughput(), r.nanosPerCell(), r.bytesPerOp, r.allocationRate() / 1e6,
+            growth));
+      }
+      previous = results;
+      GenerationStats fastest = null;
+      for (GenerationStats stats : GenerationStats.measureAll(Integer.parseInt(parts[0]),
+          Integer.parseInt(parts[1]), SEED, ROUNDS)) {
+        // bytes/op is measured; the working set is the generator's own estimate
+        System.out.println(String.format("%-14s %11s %14s %12.2f %12d %12s  est. working set "
+            + "%d bytes", stats.generator, size, "", stats.nanosPerCell(), stats.allocatedBytes,
+            "", stats.workingSetBytes));
+        if (fastest == null || stats.nanos < fastest.nanos) {
+          fastest = stats;
+        }
+      }
+      System.out.println(String.format("%-14s %11s %14s", "fastest", size,
+          fastest.generator));
+    }
+    if (MazeMetrics.ENABLED) {
+      MazeMetrics.METRICS.report(System.out);
+    }
+  }
+
+  // runs every benchmark on a maze of the given size
+  static ArrayList<BenchmarkResult> run(int length, int height) {
+    MazeWorld world = new MazeWorld(length, height, new Random(SEED));
+    ArrayList<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+    results.add(measure("addEdges", world, () -> { }, () -> world.addEdges()));
+    results.add(measure("kruskal", world, () -> {
+      world.grid.closeAll();
+      world.addEdges();
+    }, () -> world.kruskal()));
+    KruskalGenerator boruvka = new BoruvkaGenerator();
+    results.add(measure("boruvka", world, () -> {
+      world.grid.closeAll();
+      boruvka.addEdges(world.grid, world.rand, false, false);
+    }, () -> boruvka.spanningTree(world.grid)));
+    results.add(measure("reset", world, () -> { }, () -> world.reset()));
+    results.add(measure("pathIndex", world, () -> { }, () -> new PathIndex(world.maze, 0)));
+    PathIndex index = new PathIndex(world.maze, 0);
+    results.add(measure("pathQuery", world, () -> { }, () -> index.distance(
+        world.rand.nextInt(world.maze.cells()), world.rand.nextInt(world.maze.cells()))));
+    results.add(measure("breadthFirst", world, () -> world.search = null,
+        () -> world.breadthFirst()));
+    results.add(measure("breadthFirst/p", world, () -> { },
+        () -> new ParallelBreadthFirst(world.maze, 0, world.maze.cells() - 1).run()));
+    results.add(measure("depthFirst", world, () -> world.search = null,
+        () -> world.depthFirst()));
+    results.add(measure("deadEndFill", world, () -> { },
+        () -> new DeadEndFiller(world.maze, 0, world.maze.cells() - 1).run()));
+    results.add(measure("makeScene", world, () -> world.sceneCache.invalidate(),
+        () -> world.makeScene()));
+    results.add(measure("makeScene/1", world, () -> {
+      Cell cell = world.cellAt(world.rand.nextInt(world.maze.cells()));
+      if (cell.color.equals(Color.cyan)) {
+        cell.changeColor(Color.white);
+      }
+      else {
+        cell.changeColor(Color.cyan);
+      }
+    }, () -> world.makeScene()));
+    return results;
+  }
+
+  // times the given operation, running the setup before each run of it without timing it
+  static BenchmarkResult measure(String name, MazeWorld world, Runnable setup,
+      Runnable operation) {
+    long nanos = 0;
+    long bytes = 0;
+    int operations = 0;
+    for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round = round + 1) {
+      long roundNanos = 0;
+      do {
+        setup.run();
+        long[][] allocatedBefore = allocations();
+        long start = System.nanoTime();
+        operation.run();
+        long took = System.nanoTime() - start;
+        long allocated = allocatedSince(allocatedBefore);
+        roundNanos = roundNanos + took;
+        if (round >= WARMUP_ROUNDS) {
+          nanos = nanos + took;
+          bytes = bytes + allocated;
+          operations = operations + 1;
+        }
+      } while (roundNanos < ROUND_NANOS);
+    }
+    double bytesPerOp = -1;
+    if (allocations() != null) {
+      bytesPerOp = (double) bytes / operations;
+    }
+    return new BenchmarkResult(name, world.length, world.height, operations,
+        (double) nanos / operations, bytesPerOp);
+  }
+
+  // gets the ids of every live thread and the bytes each has allocated so far, or null if
+  // the JVM can't tell
+  static long[][] allocations() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return null;
+    }
+    long[] ids = threads.getAllThreadIds();
+    return new long[][] { ids,
+        ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(ids) };
+  }
+
+  // gets the bytes allocated by every thread since the given allocations were taken, so the
+  // work handed to fork-join workers is counted along with the caller's
+  // threads started since are counted whole; threads that ended since are missed, which
+  // doesn't happen to the common pool's workers while they're kept busy
+  // the bytes taking the allocations costs are left out, or 0 if the JVM can't tell
+  static long allocatedSince(long[][] before) {
+    long[][] after = allocations();
+    if (before == null || after == null) {
+      return 0;
+    }
+    long total = 0;
+    for (int i = 0; i < after[0].length; i = i + 1) {
+      if (after[1][i] >= 0) {
+        long was = 0;
+        for (int j = 0; j < before[0].length; j = j + 1) {
+          if (before[0][j] == after[0][i] && before[1][j] >= 0) {
+            was = before[1][j];
+          }
+        }
+        total = total + after[1][i] - was;
+      }
+    }
+    return Math.max(0, total - countingBytes());
+  }
+
+  // gets the bytes taking the allocations costs the calling thread, found the first time
+  // as the least of a few tries at counting nothing
+  static long countingBytes() {
+    if (countingBytes < 0) {
+      long least = Long.MAX_VALUE;
+      for (int i = 0; i < 10; i = i + 1) {
+        long[][] before = allocations();
+        long[][] after = allocations();
+        long mine = Thread.currentThread().getId();
+        for (int j = 0; j < after[0].length; j = j + 1) {
+          for (int k = 0; k < before[0].length; k = k + 1) {
+            if (after[0][j] == mine && before[0][k] == mine) {
+              least = Math.min(least, after[1][j] - before[1][k]);
+            }
+          }
+        }
       }
+      countingBytes = least;
     }
-    this.visitedBFS = new ArrayList<Cell>();
-    this.visitedDFS = new ArrayList<Cell>();
-    this.breadthFirst = false;
-    this.depthFirst = false;
-    this.searching = false;
-    this.end = false;
-    this.tick = 0;
-    this.cameFromCells = new HashMap<Cell, Cell>();
-    this.doneBackTracking = false;
-    this.curX = 0;
-    this.curY = 0;
-    this.doneBFS = false;
-    this.doneDFS = false;
-    this.completed = false;
+    return countingBytes;
   }
 }
 
@@ -564,67 +6120,73 @@ class ExamplesMaze {
   // calls bigBang on the starter maze
   void testMaze(Tester t) {
     MazeWorld starterWorld = new MazeWorld(30, 20);
-    starterWorld.bigBang(1000, 700, .01);
+    starterWorld.animation = new AnimationScheduler(true);
+    starterWorld.bigBang(MazeWorld.VIEW_WIDTH, MazeWorld.VIEW_HEIGHT,
+        AnimationScheduler.TICK_SECONDS);
   }
 
   // test for drawCell method
   void testDrawCell(Tester t) {
     initData();
-    t.checkExpect(testerWorld.board.get(0).get(0).drawCell(Color.white),
+    t.checkExpect(testerWorld.board.get(0, 0).drawCell(Color.white),
         new RectangleImage(SCALE, SCALE, "solid", Color.white));
-    t.checkExpect(testerWorld.board.get(0).get(0).drawCell(Color.blue),
+    t.checkExpect(testerWorld.board.get(0, 0).drawCell(Color.blue),
         new RectangleImage(SCALE, SCALE, "solid", Color.blue));
-    t.checkExpect(testerWorld.board.get(1).get(2).drawCell(Color.blue),
+    t.checkExpect(testerWorld.board.get(2, 1).drawCell(Color.blue),
         new RectangleImage(SCALE, SCALE, "solid", Color.blue));
   }
 
   // test for cellX method
   void testCellX(Tester t) {
     initData();
-    t.checkExpect(testerWorld.board.get(0).get(0).cellX(), 5);
-    t.checkExpect(testerWorld.board.get(0).get(0).cellX(),
-        SCALE / 2 + testerWorld.board.get(0).get(0).x * SCALE);
-    t.checkExpect(testerWorld.board.get(1).get(1).cellX(), 15);
-    t.checkExpect(testerWorld.board.get(2).get(1).cellX(), 15);
+    t.checkExpect(testerWorld.board.get(0, 0).cellX(), 5);
+    t.checkExpect(testerWorld.board.get(0, 0).cellX(),
+        SCALE / 2 + testerWorld.board.get(0, 0).x * SCALE);
+    t.checkExpect(testerWorld.board.get(1, 1).cellX(), 15);
+    t.checkExpect(testerWorld.board.get(1, 2).cellX(), 15);
   }
 
   // test for cellY method
   void testCellY(Tester t) {
     initData();
-    t.checkExpect(testerWorld.board.get(0).get(0).cellY(), 5);
-    t.checkExpect(testerWorld.board.get(0).get(0).cellX(),
-        SCALE / 2 + testerWorld.board.get(0).get(0).y * SCALE);
-    t.checkExpect(testerWorld.board.get(1).get(1).cellY(), 15);
-    t.checkExpect(testerWorld.board.get(2).get(1).cellY(), 25);
+    t.checkExpect(testerWorld.board.get(0, 0).cellY(), 5);
+    t.checkExpect(testerWorld.board.get(0, 0).cellX(),
+        SCALE / 2 + testerWorld.board.get(0, 0).y * SCALE);
+    t.checkExpect(testerWorld.board.get(1, 1).cellY(), 15);
+    t.checkExpect(testerWorld.board.get(1, 2).cellY(), 25);
   }
 
   // test for changeColor method
   void testChangeColor(Tester t) {
     initData();
-    testerWorld.board.get(0).get(0).changeColor(Color.blue);
-    t.checkExpect(testerWorld.board.get(0).get(0).color, Color.blue);
-    testerWorld.board.get(0).get(0).changeColor(Color.red);
-    t.checkExpect(testerWorld.board.get(0).get(0).color, Color.red);
+    testerWorld.board.get(0, 0).changeColor(Color.blue);
+    t.checkExpect(testerWorld.board.get(0, 0).color, Color.blue);
+    testerWorld.board.get(0, 0).changeColor(Color.red);
+    t.checkExpect(testerWorld.board.get(0, 0).color, Color.red);
   }
 
   // test for isHorizontal method
   void testIsHorizontal(Tester t) {
     initData();
-    t.checkExpect(testerWorld.board.get(1).get(0).outEdges.get(0).isHorizontal(), true);
-    t.checkExpect(testerWorld.board.get(1).get(0).outEdges.get(1).isHorizontal(), false);
-    t.checkExpect(testerWorld.board.get(0).get(0).outEdges.get(0).isHorizontal(), true);
+    t.checkExpect(testerWorld.outEdges(testerWorld.board.get(0, 1)).get(0).isHorizontal(),
+        true);
+    t.checkExpect(testerWorld.outEdges(testerWorld.board.get(0, 1)).get(1).isHorizontal(),
+        false);
+    t.checkExpect(testerWorld.outEdges(testerWorld.board.get(0, 0)).get(0).isHorizontal(),
+        true);
   }
 
   // test for addEdges method
   void testAddEdges(Tester t) {
     initData();
-    t.checkExpect(testerWorld.edges.get(0).from, testerWorld.board.get(0).get(1));
-    t.checkExpect(testerWorld.edges.get(0).to, testerWorld.board.get(0).get(2));
-    t.checkExpect(testerWorld.edges.size(), 12);
+    t.checkExpect(testerWorld.sortedEdge(0).from, testerWorld.board.get(1, 0));
+    t.checkExpect(testerWorld.sortedEdge(0).to, testerWorld.board.get(2, 0));
+    t.checkExpect(testerWorld.edges.length, 12);
     testerWorld.onKeyEvent("h");
-    t.checkExpect(testerWorld.edges.get(0).from, testerWorld.board.get(2).get(1));
-    t.checkExpect(testerWorld.edges.get(0).to, testerWorld.board.get(2).get(2));
-    t.checkExpect(testerWorld.edges.size(), 12);
+    t.checkExpect(testerWorld.sortedEdge(0).from, testerWorld.board.get(1, 2));
+    t.checkExpect(testerWorld.sortedEdge(0).to, testerWorld.board.get(2, 2));
+    t.checkExpect(testerWorld.sortedEdge(0).weight < 0, true);
+    t.checkExpect(testerWorld.edges.length, 12);
   }
 
   // test for makeScene method
@@ -721,8 +6283,93 @@ class ExamplesMaze {
 
     // vertically biased two by two
     smallWorld.onKeyEvent("v");
-    t.checkExpect(smallWorld.board.get(0).get(0).bottom, false);
-    t.checkExpect(smallWorld.board.get(0).get(1).bottom, false);
+    t.checkExpect(smallWorld.board.get(0, 0).bottom(), false);
+    t.checkExpect(smallWorld.board.get(1, 0).bottom(), false);
+  }
+
+  // test for Board
+  void testBoard(Tester t) {
+    initData();
+    Board board = testerWorld.board;
+    // only the cells drawn or coloured so far are made
+    t.checkExpect(board.made, 0);
+    testerWorld.makeScene();
+    t.checkExpect(board.made, 9);
+    t.checkExpect(board.tiles.length, 1);
+    Cell cell = board.get(2, 1);
+    t.checkExpect(board.get(2, 1) == cell, true);
+    t.checkExpect(cell.x, 2);
+    t.checkExpect(cell.y, 1);
+    cell.changeColor(Color.red);
+    board.clear();
+    t.checkExpect(board.get(2, 1) == cell, true);
+    t.checkExpect(cell.color, Color.white);
+    t.checkExpect(testerWorld.sceneCache.scene, null);
+    Board wide = new Board(new MazeGrid(130, 70), testerWorld.sceneCache);
+    t.checkExpect(wide.tiles.length, 3 * 2);
+    t.checkExpect(wide.get(129, 69).x, 129);
+    t.checkExpect(wide.tiles[5] != null, true);
+    t.checkExpect(wide.tiles[0], null);
+    // a mapped maze of 1.6 billion cells, here a sparse file with no inside walls, opens in a
+    // world without making a cell for each square or tracking changes beyond the view
+    try {
+      Path path = Files.createTempFile("maze", ".bin");
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        MazeFile.writeHeader(channel, 40000, 40000, 1, MazeFile.NO_BIAS);
+        channel.write(ByteBuffer.wrap(new byte[1]),
+            MazeFile.HEADER_BYTES + (long) ChannelRowSink.rowBytes(40000) * 40000 - 1);
+      }
+      MazeWorld world = new MazeWorld(MazeFile.open(path));
+      t.checkExpect(world.board.made, 0);
+      t.checkExpect(world.sceneCache.dirty.length, 100 * 70);
+      world.makeScene();
+      t.checkExpect(world.sceneCache.drawn, 100 * 70);
+      // the cells in view and the end
+      t.checkExpect(world.board.made, 100 * 70 + 1);
+      world.onKeyEvent("right");
+      world.onKeyEvent("down");
+      t.checkExpect(world.curX, 1);
+      t.checkExpect(world.curY, 1);
+      world.makeScene();
+      // the start, which is green again, and the two cells walked
+      t.checkExpect(world.sceneCache.drawn, 3);
+      world.onKeyEvent("backspace");
+      t.checkExpect(world.board.get(1, 1).color, Color.white);
+      Files.delete(path);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // test for SceneCache
+  void testSceneCache(Tester t) {
+    initData();
+    WorldScene first = testerWorld.makeScene();
+    t.checkExpect(testerWorld.sceneCache.dirtyCount, 0);
+    // nothing changed, so nothing is drawn
+    t.checkExpect(testerWorld.makeScene() == first, true);
+    t.checkExpect(testerWorld.sceneCache.layered, 0);
+    // one changed cell is drawn on top, with its walls
+    testerWorld.board.get(2, 1).changeColor(Color.cyan);
+    testerWorld.board.get(2, 1).changeColor(Color.red);
+    t.checkExpect(testerWorld.sceneCache.dirtyCount, 1);
+    t.checkExpect(testerWorld.makeScene() == first, true);
+    t.checkExpect(testerWorld.sceneCache.layered, 1);
+    // the same color again isn't a change
+    testerWorld.board.get(2, 1).changeColor(Color.red);
+    t.checkExpect(testerWorld.sceneCache.dirtyCount, 0);
+    // once more cells are drawn on top than the board has, the scene is drawn whole
+    testerWorld.clear();
+    for (int row = 0; row < 3; row = row + 1) {
+      for (int col = 0; col < 3; col = col + 1) {
+        testerWorld.board.get(col, row).changeColor(Color.blue);
+      }
+    }
+    WorldScene redrawn = testerWorld.makeScene();
+    t.checkExpect(redrawn == first, false);
+    t.checkExpect(testerWorld.sceneCache.layered, 0);
+    t.checkExpect(testerWorld.sceneCache.squares.size() >= 3, true);
   }
 
   // test for lastScene method
@@ -741,23 +6388,1395 @@ class ExamplesMaze {
     // initial conditions
     initData();
     // kruskal method is called in the constructor in mst field
-    t.checkExpect(testerWorld.mst.size(), 8);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(0).get(0).outEdges.get(0)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(0).get(1).outEdges.get(0)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(0).get(1).outEdges.get(1)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(0).get(1).outEdges.get(2)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(0).get(2).outEdges.get(0)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(1).get(0).outEdges.get(0)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(1).get(0).outEdges.get(1)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(1).get(1).outEdges.get(0)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(1).get(1).outEdges.get(1)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(1).get(1).outEdges.get(2)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(1).get(1).outEdges.get(3)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(1).get(2).outEdges.get(0)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(2).get(0).outEdges.get(0)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(2).get(1).outEdges.get(0)), true);
-    t.checkExpect(testerWorld.mst.contains(testerWorld.board.get(2).get(2).outEdges.get(0)), true);
+    t.checkExpect(testerWorld.mst.length, 8);
+    t.checkExpect(testerWorld.outEdges(testerWorld.board.get(1, 0)).size(), 3);
+    t.checkExpect(testerWorld.outEdges(testerWorld.board.get(1, 1)).size(), 4);
+    t.checkExpect(testerWorld.outEdges(testerWorld.board.get(2, 2)).size(), 1);
+    for (int edge : testerWorld.mst) {
+      t.checkExpect(testerWorld.inTree(testerWorld.edge(edge)), true);
+    }
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(0, 0)).get(0)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(1, 0)).get(0)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(1, 0)).get(1)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(1, 0)).get(2)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(2, 0)).get(0)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(0, 1)).get(0)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(0, 1)).get(1)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(1, 1)).get(0)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(1, 1)).get(1)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(1, 1)).get(2)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(1, 1)).get(3)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(2, 1)).get(0)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(0, 2)).get(0)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(1, 2)).get(0)), true);
+    t.checkExpect(testerWorld.inTree(
+        testerWorld.outEdges(testerWorld.board.get(2, 2)).get(0)), true);
+
+  }
+
+  // test for EllerGenerator
+  void testEllerGenerator(Tester t) {
+    MazeGrid grid = new MazeGrid(37, 23);
+    try {
+      new EllerGenerator(37, 23, new Random(5)).generate((row, walls) -> grid.setRow(row, walls));
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    // a perfect maze has exactly one passage fewer than it has cells, and reaches them all
+    int passages = 0;
+    for (int cell = 0; cell < grid.cells(); cell = cell + 1) {
+      if (!grid.hasWall(cell, MazeGrid.RIGHT)) {
+        passages = passages + 1;
+      }
+      if (!grid.hasWall(cell, MazeGrid.BOTTOM)) {
+        passages = passages + 1;
+      }
+    }
+    t.checkExpect(passages, grid.cells() - 1);
+    GridSearch everything = new GridSearch(grid, true, 0, -1);
+    everything.run();
+    t.checkExpect(everything.trace.size(), grid.cells());
+    // the same seed gives the same maze
+    MazeGrid again = new MazeGrid(37, 23);
+    ArrayList<Integer> rows = new ArrayList<Integer>();
+    try {
+      new EllerGenerator(37, 23, new Random(5)).generate((row, walls) -> {
+        again.setRow(row, walls);
+        rows.add(row);
+      });
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(again.walls, grid.walls);
+    t.checkExpect(rows.size(), 23);
+    // one column and one row
+    MazeGrid column = new MazeGrid(1, 4);
+    MazeGrid row = new MazeGrid(4, 1);
+    try {
+      new EllerGenerator(1, 4, new Random(1)).generate((r, walls) -> column.setRow(r, walls));
+      new EllerGenerator(4, 1, new Random(1)).generate((r, walls) -> row.setRow(r, walls));
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(new GridSearch(column, true, 0, 3).run(), true);
+    t.checkExpect(new GridSearch(row, true, 0, 3).run(), true);
+  }
+
+  // test for ChannelRowSink
+  void testChannelRowSink(Tester t) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ChannelRowSink sink = new ChannelRowSink(Channels.newChannel(out), 5);
+    byte[] walls = new byte[] { MazeGrid.RIGHT, MazeGrid.BOTTOM, 0,
+        MazeGrid.RIGHT | MazeGrid.BOTTOM, MazeGrid.RIGHT };
+    try {
+      sink.acceptRow(0, walls);
+      sink.acceptRow(1, walls);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(ChannelRowSink.rowBytes(5), 2);
+    t.checkExpect(out.toByteArray(), new byte[] { (byte) 0xC9, 1, (byte) 0xC9, 1 });
+  }
+
+  // test for MazeFile and MappedMaze
+  void testMazeFile(Tester t) {
+    MazeWorld world = new MazeWorld(13, 9, new Random(4));
+    try {
+      Path path = Files.createTempFile("maze", ".bin");
+      path.toFile().deleteOnExit();
+      MazeFile.write(path, world.grid, 4, MazeFile.NO_BIAS);
+      t.checkExpect(Files.size(path), (long) MazeFile.HEADER_BYTES + 4 * 9);
+      MappedMaze mapped = MazeFile.open(path);
+      t.checkExpect(mapped.length(), 13);
+      t.checkExpect(mapped.height(), 9);
+      t.checkExpect(mapped.seed, 4L);
+      boolean same = true;
+      int[] fromGrid = new int[4];
+      int[] fromFile = new int[4];
+      for (int cell = 0; cell < world.grid.cells(); cell = cell + 1) {
+        for (byte side = 1; side <= MazeGrid.LEFT; side = (byte) (side * 2)) {
+          same = same && world.grid.hasWall(cell, side) == mapped.hasWall(cell, side);
+        }
+        int count = world.grid.openNeighbors(cell, fromGrid);
+        same = same && count == mapped.openNeighbors(cell, fromFile)
+            && Arrays.equals(fromGrid, 0, count, fromFile, 0, count);
+      }
+      t.checkExpect(same, true);
+      // a world can show the mapped maze and search it
+      MazeWorld loaded = new MazeWorld(mapped);
+      t.checkExpect(loaded.breadthFirst(), true);
+      t.checkExpect(world.breadthFirst(), true);
+      t.checkExpect(loaded.search.path(), world.search.path());
+      t.checkExpect(loaded.board.get(5, 4).right(), world.board.get(5, 4).right());
+      // a maze generated straight into a file matches one generated into a grid
+      MazeFile.generate(path, 21, 7, 9, MazeFile.VERTICAL_BIAS);
+      MazeGrid grid = new MazeGrid(21, 7);
+      new EllerGenerator(21, 7, new Random(9), false, true)
+          .generate((row, walls) -> grid.setRow(row, walls));
+      MappedMaze generated = MazeFile.open(path);
+      t.checkExpect(generated.bias, MazeFile.VERTICAL_BIAS);
+      boolean matches = true;
+      for (int cell = 0; cell < grid.cells(); cell = cell + 1) {
+        for (byte side = 1; side <= MazeGrid.LEFT; side = (byte) (side * 2)) {
+          matches = matches && grid.hasWall(cell, side) == generated.hasWall(cell, side);
+        }
+      }
+      t.checkExpect(matches, true);
+      // anything else is turned away
+      Files.write(path, new byte[] { 1, 2, 3 });
+      try {
+        MazeFile.open(path);
+        t.checkExpect("opened", "turned away");
+      }
+      catch (IOException e) {
+        t.checkExpect(e.getMessage(), path + " is not a maze file");
+      }
+      // and so is a maze with more cells than an int can number, here a sparse file
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING)) {
+        MazeFile.writeHeader(channel, 100000, 100000, 1, MazeFile.NO_BIAS);
+        channel.write(ByteBuffer.wrap(new byte[1]),
+            MazeFile.HEADER_BYTES + (long) ChannelRowSink.rowBytes(100000) * 100000 - 1);
+      }
+      try {
+        MazeFile.open(path);
+        t.checkExpect("opened", "turned away");
+      }
+      catch (IOException e) {
+        t.checkExpect(e.getMessage(), path + " has more cells than can be numbered");
+      }
+      Files.delete(path);
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // test for KruskalGenerator
+  void testKruskalGenerator(Tester t) {
+    initData();
+    MazeGrid grid = new MazeGrid(3, 3);
+    int[] mst = new KruskalGenerator().generate(grid, new Random(0), false, false);
+    t.checkExpect(grid.walls, testerWorld.grid.walls);
+    t.checkExpect(mst, testerWorld.mst);
+    t.checkExpect(KruskalGenerator.edgeKey(-100000, 7), 7L);
+    t.checkExpect(KruskalGenerator.edgeKey(0, 7) > KruskalGenerator.edgeKey(-1, 8), true);
+    // one generator reused across grids of the same size but different shapes makes the
+    // mazes a new generator would
+    int[][] shapes = new int[][] { { 3, 2 }, { 6, 1 }, { 4, 3 }, { 12, 1 }, { 2, 6 }, { 3, 4 },
+        { 1, 6 }, { 2, 3 }, { 12, 1 }, { 3, 4 } };
+    for (String name : new String[] { "kruskal", "boruvka" }) {
+      KruskalGenerator reused = (KruskalGenerator) MazeGenerator.named(name, 12);
+      for (int seed = 0; seed < 20; seed = seed + 1) {
+        for (int[] shape : shapes) {
+          MazeGrid reusedGrid = new MazeGrid(shape[0], shape[1]);
+          MazeGrid freshGrid = new MazeGrid(shape[0], shape[1]);
+          int[] reusedTree = reused.generate(reusedGrid, new Random(seed), seed % 3 == 1,
+              seed % 3 == 2);
+          int[] freshTree = MazeGenerator.named(name, 12).generate(freshGrid, new Random(seed),
+              seed % 3 == 1, seed % 3 == 2);
+          t.checkExpect(reusedGrid.walls, freshGrid.walls);
+          t.checkExpect(reusedTree, freshTree);
+        }
+      }
+    }
+  }
+
+  // test for KruskalGenerator.sortKeys
+  void testSortKeys(Tester t) {
+    Random rand = new Random(5);
+    long[] keys = new long[5000];
+    for (int i = 0; i < keys.length; i = i + 1) {
+      int weight = rand.nextInt(100000);
+      if (rand.nextBoolean()) {
+        weight = weight - 100000;
+      }
+      keys[i] = KruskalGenerator.edgeKey(weight, i);
+    }
+    long[] expected = keys.clone();
+    Arrays.sort(expected);
+    long[] unsorted = keys.clone();
+    KruskalGenerator.sortKeys(keys);
+    t.checkExpect(keys, expected);
+    // a buffer longer than the keys, with leftovers past them, is fine
+    long[] buffer = new long[7000];
+    Arrays.fill(buffer, KruskalGenerator.edgeKey(99999, 1));
+    KruskalGenerator.sortKeys(unsorted, buffer);
+    t.checkExpect(unsorted, expected);
+    long[] empty = new long[0];
+    KruskalGenerator.sortKeys(empty);
+    t.checkExpect(empty.length, 0);
+  }
+
+  // test for BoruvkaGenerator
+  void testBoruvkaGenerator(Tester t) {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    for (int seed = 0; seed < 6; seed = seed + 1) {
+      boolean preferHorizontal = seed % 3 == 1;
+      boolean preferVertical = seed % 3 == 2;
+      MazeGrid expected = new MazeGrid(300, 200);
+      int[] kruskal = new KruskalGenerator().generate(expected, new Random(seed),
+          preferHorizontal, preferVertical);
+      MazeGrid grid = new MazeGrid(300, 200);
+      int[] boruvka = new BoruvkaGenerator(pool).generate(grid, new Random(seed),
+          preferHorizontal, preferVertical);
+      t.checkExpect(grid.walls, expected.walls);
+      Arrays.sort(kruskal);
+      t.checkExpect(boruvka, kruskal);
+    }
+    MazeGrid single = new MazeGrid(1, 1);
+    t.checkExpect(new BoruvkaGenerator(pool).generate(single, new Random(0), false, false),
+        new int[0]);
+    pool.shutdown();
+    t.checkExpect(KruskalGenerator.forCells(100) instanceof BoruvkaGenerator, false);
+    t.checkExpect(KruskalGenerator.forCells(BoruvkaGenerator.PARALLEL_CELLS, 4)
+        instanceof BoruvkaGenerator, true);
+    // on one thread Boruvka's algorithm is only slower
+    t.checkExpect(KruskalGenerator.forCells(BoruvkaGenerator.PARALLEL_CELLS, 1)
+        instanceof BoruvkaGenerator, false);
+    t.checkExpect(KruskalGenerator.forCells(BoruvkaGenerator.PARALLEL_CELLS)
+        instanceof BoruvkaGenerator, ForkJoinPool.getCommonPoolParallelism() > 1);
+    int[] counts = new int[] { 3, 0, 5, 2, 9 };
+    t.checkExpect(BoruvkaGenerator.offsets(counts, 4), 10);
+    t.checkExpect(counts, new int[] { 0, 3, 3, 8, 9 });
+  }
+
+  // checks that the given tree spans the given grid and that its walls are the ones down
+  boolean spansGrid(MazeGrid grid, int[] tree) {
+    UnionFind joined = new UnionFind(grid.cells());
+    MazeGrid expected = new MazeGrid(grid.length, grid.height);
+    for (int edge : tree) {
+      if (!joined.union(MazeGrid.from(edge), grid.to(edge))) {
+        return false;
+      }
+      expected.open(edge);
+    }
+    return tree.length == grid.cells() - 1 && Arrays.equals(expected.walls, grid.walls);
+  }
+
+  // test for the MazeGenerator engines
+  void testMazeGenerators(Tester t) {
+    for (String name : MazeGenerator.NAMES) {
+      for (int seed = 0; seed < 4; seed = seed + 1) {
+        MazeGrid grid = new MazeGrid(17, 11);
+        MazeGenerator generator = MazeGenerator.named(name, grid.cells());
+        t.checkExpect(generator.name(), name);
+        int[] tree = generator.generate(grid, new Random(seed), seed == 1, seed == 2);
+        t.checkExpect(spansGrid(grid, tree), true);
+        t.checkExpect(generator.workingSetBytes() >= 4L * tree.length, true);
+        MazeGrid again = new MazeGrid(17, 11);
+        MazeGenerator.named(name, grid.cells()).generate(again, new Random(seed), seed == 1,
+            seed == 2);
+        t.checkExpect(again.walls, grid.walls);
+      }
+      MazeGrid column = new MazeGrid(1, 6);
+      t.checkExpect(spansGrid(column,
+          MazeGenerator.named(name, 6).generate(column, new Random(3), true, false)), true);
+      MazeGrid single = new MazeGrid(1, 1);
+      t.checkExpect(MazeGenerator.named(name, 1).generate(single, new Random(3), false, false),
+          new int[0]);
+    }
+    t.checkExpect(MazeGenerator.named("kruskal", BoruvkaGenerator.PARALLEL_CELLS).name(),
+        KruskalGenerator.forCells(BoruvkaGenerator.PARALLEL_CELLS).name());
+    MazeGrid biased = new MazeGrid(40, 40);
+    int[] tree = new BacktrackerGenerator().generate(biased, new Random(1), true, false);
+    int horizontal = 0;
+    for (int edge : tree) {
+      if (MazeGrid.isHorizontal(edge)) {
+        horizontal = horizontal + 1;
+      }
+    }
+    t.checkExpect(horizontal > tree.length * 2 / 3, true);
+    t.checkExpect(new MazeGrid(5, 4).edgeBetween(7, 12), 15);
+    t.checkExpect(new MazeGrid(5, 4).edgeBetween(8, 7), 14);
+    t.checkExpect(new MazeGrid(1, 4).edgeBetween(2, 1), 3);
+  }
+
+  // test for GenerationStats
+  void testGenerationStats(Tester t) {
+    GenerationStats stats = GenerationStats.measure("prim", 30, 20, 4, 2);
+    t.checkExpect(stats.generator, "prim");
+    t.checkExpect(stats.nanos > 0, true);
+    t.checkExpect(stats.workingSetBytes > 0, true);
+    // a new generator allocates at least its tree, 4 bytes for each of 599 edges
+    t.checkExpect(stats.allocatedBytes >= 4 * 599, true);
+    t.checkExpect(new GenerationStats("x", 10, 10, 500, 0, 0).nanosPerCell(), 5.0);
+    t.checkExpect(GenerationStats.measureAll(8, 8, 4, 1).size(), MazeGenerator.NAMES.length);
+    t.checkExpect(Arrays.asList(MazeGenerator.NAMES).contains(
+        GenerationStats.fastest(8, 8, 4, 1)), true);
+  }
+
+  // test for the g key and generators in MazeWorld
+  void testWorldGenerators(Tester t) {
+    MazeWorld world = new MazeWorld(6, 5, new Random(8));
+    t.checkExpect(world.generator.name(), "kruskal");
+    t.checkExpect(world.edges.length, 49);
+    world.onKeyEvent("h");
+    world.onKeyEvent("g");
+    t.checkExpect(world.generator.name(), "boruvka");
+    world.onKeyEvent("g");
+    t.checkExpect(world.generator.name(), "backtracker");
+    t.checkExpect(world.preferHorizontal, true);
+    t.checkExpect(spansGrid(world.grid, world.mst), true);
+    t.checkExpect(world.edges.length, 0);
+    // the weighted steps leave a maze from another generator alone
+    byte[] walls = world.grid.walls.clone();
+    int[] tree = world.mst;
+    world.addEdges();
+    t.checkExpect(world.kruskal() == tree, true);
+    t.checkExpect(world.grid.walls, walls);
+    t.checkExpect(world.edges.length, 0);
+    world.onKeyEvent("b");
+    world.onTick();
+    t.checkExpect(world.doneBFS, true);
+    t.checkExpect(world.search.found, true);
+    world.onKeyEvent("g");
+    world.onKeyEvent("g");
+    t.checkExpect(world.generator.name(), "wilson");
+    world.onKeyEvent("g");
+    t.checkExpect(world.generator.name(), "kruskal");
+    MazeWorld prim = new MazeWorld(6, 5, new Random(8), new PrimGenerator());
+    t.checkExpect(spansGrid(prim.grid, prim.mst), true);
+    MazeRun run = new MazeEngine(6, 5, false, false, "wilson").run(3, MazeSearch.A_STAR);
+    t.checkExpect(run.generator, "wilson");
+    t.checkExpect(run.found, true);
+    t.checkExpect(run.toCsv().endsWith(",wilson," + run.workingSetBytes), true);
+  }
+
+  // test for PathIndex
+  void testPathIndex(Tester t) {
+    initData();
+    PathIndex index = new PathIndex(testerWorld.maze, 0);
+    t.checkExpect(index.distance(0, 8), 4);
+    t.checkExpect(index.path(0, 8), new int[] { 0, 1, 4, 7, 8 });
+    t.checkExpect(index.path(8, 3), new int[] { 8, 7, 4, 3 });
+    t.checkExpect(index.path(8, 8), new int[] { 8 });
+    for (String name : MazeGenerator.NAMES) {
+      MazeGrid grid = new MazeGrid(23, 17);
+      MazeGenerator.named(name, grid.cells()).generate(grid, new Random(6), false, false);
+      PathIndex paths = new PathIndex(grid, 5);
+      Random rand = new Random(1);
+      for (int i = 0; i < 40; i = i + 1) {
+        int a = rand.nextInt(grid.cells());
+        int b = rand.nextInt(grid.cells());
+        MazeSearch search = MazeSearch.of(MazeSearch.BREADTH_FIRST, grid, a, b);
+        search.run();
+        t.checkExpect(paths.path(a, b), search.path());
+        t.checkExpect(paths.distance(a, b), search.path().length - 1);
+        t.checkExpect(paths.distance(b, a), paths.distance(a, b));
+      }
+    }
+    MazeGrid walled = new MazeGrid(3, 1);
+    walled.open(0);
+    PathIndex apart = new PathIndex(walled, 0);
+    t.checkExpect(apart.distance(0, 1), 1);
+    t.checkExpect(apart.distance(0, 2), -1);
+    t.checkExpect(apart.path(2, 1), new int[0]);
+  }
+
+  // test for reset reusing the grid, the board and the generator's arrays
+  void testResetReuse(Tester t) {
+    MazeWorld world = new MazeWorld(7, 5, new Random(3));
+    MazeGrid grid = world.grid;
+    Cell corner = world.board.get(6, 4);
+    SceneCache cache = world.sceneCache;
+    int[] weights = world.weights;
+    world.onKeyEvent("b");
+    world.onTick();
+    world.makeScene();
+    world.onKeyEvent("v");
+    t.checkExpect(world.grid == grid, true);
+    t.checkExpect(world.board.get(6, 4) == corner, true);
+    t.checkExpect(world.sceneCache == cache, true);
+    t.checkExpect(world.weights == weights, true);
+    t.checkExpect(world.sceneCache.scene, null);
+    t.checkExpect(corner.color, Color.white);
+    t.checkExpect(world.search, null);
+    t.checkExpect(world.searching, false);
+    Random rand = new Random(3);
+    KruskalGenerator generator = new KruskalGenerator();
+    MazeGrid expected = new MazeGrid(7, 5);
+    generator.generate(expected, rand, false, false);
+    expected.closeAll();
+    generator.generate(expected, rand, false, true);
+    t.checkExpect(world.grid.walls, expected.walls);
+    MazeWorld loaded = new MazeWorld(world.grid);
+    loaded.reset();
+    t.checkExpect(loaded.grid == world.grid, false);
+    t.checkExpect(loaded.maze, loaded.grid);
+  }
+
+  // test for DistanceField
+  void testDistanceField(Tester t) {
+    initData();
+    DistanceField field = new DistanceField(testerWorld.maze, 8);
+    t.checkExpect(field.distance, new int[] { 4, 3, 4, 3, 2, 3, 4, 1, 0 });
+    t.checkExpect(field.farthest, 4);
+    t.checkExpect(field.toward(0), 1);
+    t.checkExpect(field.toward(7), 8);
+    t.checkExpect(field.toward(8), 8);
+    t.checkExpect(field.colorOf(8), DistanceField.PALETTE[0]);
+    t.checkExpect(field.colorOf(2), DistanceField.PALETTE[63]);
+    t.checkExpect(field.colorOf(4) == DistanceField.PALETTE[31], true);
+    int[] distance = field.distance;
+    field.compute(testerWorld.maze, 0);
+    t.checkExpect(field.distance == distance, true);
+    t.checkExpect(field.distance[8], 4);
+    MazeGrid walled = new MazeGrid(2, 1);
+    DistanceField apart = new DistanceField(walled, 1);
+    t.checkExpect(apart.distance, new int[] { -1, 0 });
+    t.checkExpect(apart.toward(0), 0);
+    t.checkExpect(apart.colorOf(0), Color.white);
+    t.checkExpect(DistanceField.palette(5).length, 5);
+  }
+
+  // test for the f and n keys and enter without a search
+  void testHeatmapAndHints(Tester t) {
+    initData();
+    testerWorld.onKeyEvent("f");
+    t.checkExpect(testerWorld.board.get(2, 2).color, DistanceField.PALETTE[0]);
+    t.checkExpect(testerWorld.board.get(2, 0).color, DistanceField.PALETTE[63]);
+    testerWorld.onKeyEvent("backspace");
+    testerWorld.onKeyEvent("n");
+    t.checkExpect(testerWorld.board.get(1, 0).color, Color.yellow);
+    t.checkExpect(testerWorld.board.get(1, 1).color, Color.white);
+    testerWorld.onKeyEvent("right");
+    testerWorld.onKeyEvent("n");
+    t.checkExpect(testerWorld.board.get(1, 1).color, Color.yellow);
+    testerWorld.onKeyEvent("enter");
+    t.checkExpect(testerWorld.board.get(1, 1).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(1, 2).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(2, 2).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(0, 0).color, Color.LIGHT_GRAY);
+    DistanceField field = testerWorld.distances;
+    testerWorld.onKeyEvent("r");
+    t.checkExpect(testerWorld.distancesCurrent, false);
+    testerWorld.onKeyEvent("n");
+    t.checkExpect(testerWorld.distances == field, true);
+    t.checkExpect(testerWorld.distancesCurrent, true);
+  }
+
+  // test for Camera
+  void testCamera(Tester t) {
+    Camera small = new Camera(100, 70, 30, 20);
+    t.checkExpect(small.cols, 30);
+    t.checkExpect(small.rows, 20);
+    t.checkExpect(small.follow(29, 19), false);
+    t.checkExpect(small.sees(29, 19), true);
+    Camera camera = new Camera(100, 70, 5000, 5000);
+    t.checkExpect(camera.follow(10, 10), false);
+    t.checkExpect(camera.follow(74, 52), false);
+    t.checkExpect(camera.follow(75, 52), true);
+    t.checkExpect(camera.left, 25);
+    t.checkExpect(camera.top, 0);
+    t.checkExpect(camera.sees(124, 69), true);
+    t.checkExpect(camera.sees(125, 69), false);
+    t.checkExpect(camera.sees(24, 0), false);
+    t.checkExpect(camera.follow(4999, 4999), true);
+    t.checkExpect(camera.left, 4900);
+    t.checkExpect(camera.top, 4930);
+    t.checkExpect(camera.follow(0, 0), true);
+    t.checkExpect(camera.left, 0);
+    t.checkExpect(camera.top, 0);
+  }
+
+  // test for drawing only what the camera sees
+  void testViewport(Tester t) {
+    MazeWorld world = new MazeWorld(300, 200, new Random(2));
+    world.makeScene();
+    t.checkExpect(world.sceneCache.drawn, 100 * 70);
+    world.cellAt(world.maze.id(250, 150)).changeColor(Color.cyan);
+    world.cellAt(world.maze.id(3, 3)).changeColor(Color.cyan);
+    world.makeScene();
+    t.checkExpect(world.sceneCache.drawn, 1);
+    world.curX = 80;
+    world.makeScene();
+    t.checkExpect(world.camera.left, 30);
+    t.checkExpect(world.sceneCache.drawn, 100 * 70);
+    world.curX = 81;
+    world.makeScene();
+    t.checkExpect(world.sceneCache.drawn, 0);
+    t.checkExpect(world.sceneCache.sceneX(world.cellAt(world.maze.id(30, 0))), SCALE / 2);
+    world.curX = 0;
+    world.onMouseClicked(new Posn(SCALE * 2 + 1, SCALE / 2));
+    t.checkExpect(world.paths != null, true);
+    initData();
+    testerWorld.makeScene();
+    t.checkExpect(testerWorld.sceneCache.drawn, 9);
+    t.checkExpect(testerWorld.camera.cols, 3);
+  }
+
+  // test for onMouseClicked
+  void testOnMouseClicked(Tester t) {
+    initData();
+    testerWorld.onMouseClicked(new Posn(SCALE * 2 + 1, SCALE * 2 + 1));
+    t.checkExpect(testerWorld.board.get(1, 0).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(1, 1).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(1, 2).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(2, 2).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(0, 1).color, Color.white);
+    PathIndex built = testerWorld.paths;
+    testerWorld.onMouseClicked(new Posn(-5, 3000));
+    t.checkExpect(testerWorld.paths, built);
+    testerWorld.onKeyEvent("r");
+    t.checkExpect(testerWorld.paths, null);
+  }
+
+  // copies every wall of the given tiled maze into a grid, checking as it goes that the two
+  // cells on either side of each wall agree about it
+  MazeGrid copyTiled(TiledMaze maze, Tester t) {
+    MazeGrid grid = new MazeGrid(maze.length, maze.height);
+    boolean agree = true;
+    for (int row = 0; row < maze.height; row = row + 1) {
+      for (int col = 0; col < maze.length; col = col + 1) {
+        int walls = 0;
+        if (maze.hasWall(col, row, MazeGrid.TOP)) {
+          walls = walls | MazeGrid.TOP;
+        }
+        if (maze.hasWall(col, row, MazeGrid.LEFT)) {
+          walls = walls | MazeGrid.LEFT;
+        }
+        if (maze.hasWall(col, row, MazeGrid.RIGHT)) {
+          walls = walls | MazeGrid.RIGHT;
+        }
+        if (maze.hasWall(col, row, MazeGrid.BOTTOM)) {
+          walls = walls | MazeGrid.BOTTOM;
+        }
+        grid.walls[grid.id(col, row)] = (byte) walls;
+        if (col > 0) {
+          agree = agree && maze.hasWall(col - 1, row, MazeGrid.RIGHT)
+              == maze.hasWall(col, row, MazeGrid.LEFT);
+        }
+        if (row > 0) {
+          agree = agree && maze.hasWall(col, row - 1, MazeGrid.BOTTOM)
+              == maze.hasWall(col, row, MazeGrid.TOP);
+        }
+      }
+    }
+    t.checkExpect(agree, true);
+    return grid;
+  }
+
+  // test for TiledMaze
+  void testTiledMaze(Tester t) {
+    TiledMaze roomy = new TiledMaze(53, 37, 9, 8, 100);
+    MazeGrid whole = copyTiled(roomy, t);
+    t.checkExpect(roomy.misses, 35L);
+    t.checkExpect(roomy.evictions, 0L);
+    int open = 0;
+    for (int cell = 0; cell < whole.cells(); cell = cell + 1) {
+      open = open + Integer.bitCount(~whole.walls[cell] & (MazeGrid.RIGHT | MazeGrid.BOTTOM));
+    }
+    t.checkExpect(open, whole.cells() - 1);
+    PathIndex paths = new PathIndex(whole, 0);
+    t.checkExpect(paths.distance(0, whole.cells() - 1) > 0, true);
+    TiledMaze cramped = new TiledMaze(53, 37, 9, 8, 3);
+    t.checkExpect(copyTiled(cramped, t).walls, whole.walls);
+    t.checkExpect(cramped.tiles.size(), 3);
+    t.checkExpect(cramped.evictions > 0, true);
+    t.checkExpect(cramped.misses, cramped.evictions + 3);
+    t.checkExpect(copyTiled(new TiledMaze(53, 37, 10, 8, 100), t).walls.equals(whole.walls),
+        false);
+    MazeGrid tile = roomy.tile(6, 4);
+    t.checkExpect(tile.length, 5);
+    t.checkExpect(tile.height, 5);
+    t.checkExpect(roomy.join(0, 0), TiledMaze.JOIN_NONE);
+    t.checkExpect(roomy.join(3, 0), TiledMaze.JOIN_LEFT);
+    t.checkExpect(roomy.join(0, 2), TiledMaze.JOIN_UP);
+    t.checkExpect(roomy.passage(6, 4) < 5, true);
+    t.checkExpect(TiledMaze.mix(0) == TiledMaze.mix(1), false);
+    TiledMaze huge = new TiledMaze(2000000000, 2000000000, 1);
+    t.checkExpect(huge.hasWall(1999999999, 1999999999, MazeGrid.RIGHT), true);
+    huge.hasWall(1234567890, 987654321, MazeGrid.TOP);
+    t.checkExpect(huge.tiles.size() <= 2, true);
+  }
+
+  // test for TiledMazeWorld
+  void testTiledMazeWorld(Tester t) {
+    initData();
+    TiledMaze maze = new TiledMaze(3, 3, 0);
+    TiledMazeWorld world = new TiledMazeWorld(maze);
+    MazeGrid grid = maze.tile(0, 0);
+    int[] path = new PathIndex(grid, 0).path(0, 8);
+    for (int i = 1; i < path.length; i = i + 1) {
+      int step = path[i] - path[i - 1];
+      if (step == 1) {
+        world.onKeyEvent("right");
+      }
+      else if (step == -1) {
+        world.onKeyEvent("left");
+      }
+      else if (step == 3) {
+        world.onKeyEvent("down");
+      }
+      else {
+        world.onKeyEvent("up");
+      }
+    }
+    t.checkExpect(world.completed, true);
+    t.checkExpect(world.moves, path.length - 1);
+    world.makeScene();
+    TiledMazeWorld big = new TiledMazeWorld(new TiledMaze(1000, 1000, 4));
+    big.curCol = 500;
+    big.curRow = 990;
+    t.checkExpect(big.viewCol(), 450);
+    t.checkExpect(big.viewRow(), 930);
+    big.curCol = 3;
+    t.checkExpect(big.viewCol(), 0);
+    big.makeScene();
+    t.checkExpect(big.maze.tiles.size() <= 4, true);
+    big.curCol = 0;
+    big.curRow = 0;
+    if (big.maze.hasWall(0, 0, MazeGrid.RIGHT)) {
+      big.onKeyEvent("right");
+      t.checkExpect(big.curCol, 0);
+      big.onKeyEvent("down");
+      t.checkExpect(big.curRow, 1);
+    }
+    else {
+      big.onKeyEvent("right");
+      t.checkExpect(big.curCol, 1);
+    }
+  }
+
+  // test for MazeSession
+  void testMazeSession(Tester t) {
+    initData();
+    SharedMaze shared = new SharedMaze(testerWorld.maze);
+    MazeSession session = new MazeSession(shared);
+    t.checkExpect(session.handle("down"), "at 0");
+    t.checkExpect(session.handle("enter"), "path 5");
+    t.checkExpect(session.handle("right"), "at 1");
+    t.checkExpect(session.handle("n"), "hint 4");
+    t.checkExpect(session.handle("down"), "at 4");
+    t.checkExpect(session.handle("down"), "at 7");
+    t.checkExpect(session.handle("right"), "done 4");
+    t.checkExpect(session.handle("left"), "done 4");
+    t.checkExpect(session.handle("r"), "at 0");
+    t.checkExpect(session.handle("a"), "search astar");
+    t.checkExpect(session.handle("p"), "paused");
+    t.checkExpect(session.handle("tick"), "expanded 0");
+    t.checkExpect(session.handle("p"), "resumed");
+    t.checkExpect(session.handle("enter"), "path 5");
+    t.checkExpect(session.handle("m"), "search bidirectional");
+    t.checkExpect(session.handle("escape"), "cancelled");
+    t.checkExpect(session.handle("enter"), "path 5");
+    t.checkExpect(session.handle("jump"), "unknown jump");
+    MazeSession other = new MazeSession(shared);
+    t.checkExpect(other.handle("right"), "at 1");
+    t.checkExpect(session.cell, 0);
+  }
+
+  // test for SessionServer
+  void testSessionServer(Tester t) {
+    initData();
+    SessionServer server = new SessionServer(new SharedMaze(testerWorld.maze));
+    try {
+      MazeSession session = server.open();
+      session.inbox.put("right");
+      t.checkExpect(session.outbox.take(), "at 1");
+      session.inbox.put("n");
+      t.checkExpect(session.outbox.take(), "hint 4");
+      session.inbox.put(MazeSession.QUIT);
+      ServerSocket socket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+      server.threads.execute(() -> {
+        try {
+          server.serve(socket);
+        }
+        catch (IOException e) {
+          // the test below fails if nothing is served
+        }
+      });
+      Socket client = new Socket(InetAddress.getLoopbackAddress(), socket.getLocalPort());
+      BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(),
+          StandardCharsets.UTF_8));
+      PrintWriter out = new PrintWriter(client.getOutputStream(), true);
+      out.println("right");
+      t.checkExpect(in.readLine(), "at 1");
+      out.println("enter");
+      t.checkExpect(in.readLine(), "path 4");
+      out.println(MazeSession.QUIT);
+      t.checkExpect(in.readLine(), null);
+      client.close();
+      socket.close();
+    }
+    catch (IOException | InterruptedException e) {
+      t.checkExpect(e, null);
+    }
+    server.close();
+  }
+
+  // test for SessionLoadTest
+  void testSessionLoadTest(Tester t) {
+    try {
+      SessionLoadTest result = SessionLoadTest.run(20, 50, 30, 30, 1);
+      t.checkExpect(result.events, 1000L);
+      t.checkExpect(result.eventsPerSecond() > 0, true);
+      t.checkExpect(result.percentile(50) <= result.percentile(99), true);
+      t.checkExpect(result.percentile(99) <= result.percentile(100), true);
+      t.checkExpect(result.percentile(100), result.latencies[999]);
+    }
+    catch (InterruptedException | ExecutionException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(new SessionLoadTest(1, 1, new long[0]).percentile(99), 0L);
+  }
+
+  // test for Histogram
+  void testHistogram(Tester t) {
+    t.checkExpect(Histogram.bucketOf(0), 0);
+    t.checkExpect(Histogram.bucketOf(7), 7);
+    t.checkExpect(Histogram.bucketOf(15), 15);
+    t.checkExpect(Histogram.bucketOf(16), 16);
+    t.checkExpect(Histogram.bucketOf(17), 16);
+    t.checkExpect(Histogram.highestIn(16), 17L);
+    t.checkExpect(Histogram.bucketOf(Long.MAX_VALUE), Histogram.BUCKETS - 1);
+    t.checkExpect(Histogram.highestIn(Histogram.BUCKETS - 1), Long.MAX_VALUE);
+    for (long value = 1; value < 1L << 40; value = value * 3) {
+      int bucket = Histogram.bucketOf(value);
+      t.checkExpect(Histogram.highestIn(bucket) >= value, true);
+      t.checkExpect(Histogram.highestIn(bucket - 1) < value, true);
+    }
+    Histogram h = new Histogram();
+    t.checkExpect(h.percentile(99), 0L);
+    for (long value = 1; value <= 1000; value = value + 1) {
+      h.record(value);
+    }
+    t.checkExpect(h.count(), 1000L);
+    t.checkExpect(h.mean(), 500.5);
+    t.checkExpect(h.max(), 1000L);
+    t.checkExpect(h.percentile(50) >= 500 && h.percentile(50) <= 500 * 9 / 8, true);
+    t.checkExpect(h.percentile(99) >= 990 && h.percentile(99) <= 1000, true);
+    t.checkExpect(h.percentile(100), 1000L);
+    h.reset();
+    t.checkExpect(h.count(), 0L);
+    t.checkExpect(h.max(), 0L);
+  }
+
+  // test for MazeMetrics
+  void testMazeMetrics(Tester t) {
+    initData();
+    // metrics are off in tests, so nothing the world does is counted
+    testerWorld.breadthFirst();
+    testerWorld.makeScene();
+    t.checkExpect(MazeMetrics.ENABLED, false);
+    t.checkExpect(MazeMetrics.METRICS.breadthFirst.count(), 0L);
+    t.checkExpect(MazeMetrics.METRICS.frames.sum(), 0L);
+    t.checkExpect(testerWorld.search.frontierPeak, 0);
+    MazeSearch search = MazeSearch.of(MazeSearch.BREADTH_FIRST, testerWorld.maze, 0, 8);
+    t.checkExpect(search.frontierSize(), 1);
+    t.checkExpect(MazeSearch.of(MazeSearch.BIDIRECTIONAL, testerWorld.maze, 0, 8)
+        .frontierSize(), 2);
+    search.run();
+    MazeMetrics metrics = new MazeMetrics();
+    metrics.frame(0, 3, 9);
+    metrics.expanded(search, 5, false);
+    metrics.expanded(search, 4, true);
+    t.checkExpect(metrics.frames.sum(), 1L);
+    t.checkExpect(metrics.frameImages.max(), 3L);
+    t.checkExpect(metrics.imagesAllocated.sum(), 3L);
+    t.checkExpect(metrics.nodesExpanded.sum(), 9L);
+    t.checkExpect(metrics.searchNodes.count(), 1L);
+    t.checkExpect(metrics.searchNodes.max(), (long) search.expanded);
+    try {
+      MBeanServer server = MBeanServerFactory.newMBeanServer();
+      ObjectName name = new ObjectName(MazeMetrics.OBJECT_NAME);
+      metrics.register(server, name);
+      t.checkExpect(server.getAttribute(name, "frames"), 1L);
+      t.checkExpect(server.getAttribute(name, "frameCells.max"), 9L);
+      t.checkExpect(server.getAttribute(name, "nodesExpanded"), 9L);
+      t.checkExpect(server.getAttribute(name, "frameImages.count"), 1L);
+      t.checkExpect(server.getMBeanInfo(name).getAttributes().length,
+          5 + 7 * metrics.histograms.size());
+      server.invoke(name, "reset", new Object[0], new String[0]);
+      t.checkExpect(server.getAttribute(name, "frames"), 0L);
+      server.getAttribute(name, "frames.p42");
+      t.checkExpect("frames.p42 is not an attribute", null);
+    }
+    catch (AttributeNotFoundException e) {
+      t.checkExpect(e.getMessage(), "frames.p42");
+    }
+    catch (JMException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // test for ParallelBreadthFirst
+  void testParallelBreadthFirst(Tester t) {
+    initData();
+    ForkJoinPool pool = new ForkJoinPool(3);
+    for (String name : MazeGenerator.NAMES) {
+      MazeGrid grid = new MazeEngine(40, 30, false, false, name).generate(7);
+      MazeSearch sequential = MazeSearch.of(MazeSearch.BREADTH_FIRST, grid, 0, 1199);
+      sequential.run();
+      ParallelBreadthFirst parallel = new ParallelBreadthFirst(grid, 0, 1199, pool);
+      // splits even the smallest levels, so the chunks are put back together on every level
+      parallel.grain = 1;
+      t.checkExpect(parallel.run(), true);
+      t.checkExpect(parallel.expanded, sequential.expanded);
+      t.checkExpect(parallel.path(), sequential.path());
+      for (int i = 0; i < sequential.expanded; i = i + 1) {
+        t.checkExpect(parallel.order[i], sequential.trace.get(i));
+      }
+      t.checkExpect(parallel.levels, sequential.path().length - 1);
+    }
+    pool.shutdown();
+    ParallelBreadthFirst small = new ParallelBreadthFirst(testerWorld.maze, 0, 8);
+    t.checkExpect(small.run(), true);
+    t.checkExpect(small.path(), new int[] { 0, 1, 4, 7, 8 });
+    t.checkExpect(small.isVisited(8), true);
+    t.checkExpect(small.claim(8), false);
+    ParallelBreadthFirst same = new ParallelBreadthFirst(testerWorld.maze, 4, 4);
+    t.checkExpect(same.run(), true);
+    t.checkExpect(same.path(), new int[] { 4 });
+    t.checkExpect(same.levels, 0);
+    testerWorld.grid.closeAll();
+    ParallelBreadthFirst closed = new ParallelBreadthFirst(testerWorld.maze, 0, 8);
+    t.checkExpect(closed.run(), false);
+    t.checkExpect(closed.path(), new int[0]);
+    t.checkExpect(closed.expanded, 1);
+  }
+
+  // test for DeadEndFiller
+  void testDeadEndFiller(Tester t) {
+    initData();
+    ForkJoinPool pool = new ForkJoinPool(3);
+    for (String name : MazeGenerator.NAMES) {
+      // two words to a row and three bands
+      MazeGrid grid = new MazeEngine(70, 150, false, false, name).generate(4);
+      int[][] ends = new int[][] { { 0, 10499 }, { 3535, 69 }, { 8000, 8001 } };
+      for (int[] end : ends) {
+        MazeSearch search = MazeSearch.of(MazeSearch.BREADTH_FIRST, grid, end[0], end[1]);
+        search.run();
+        DeadEndFiller filler = new DeadEndFiller(grid, end[0], end[1], pool);
+        t.checkExpect(filler.run(), true);
+        t.checkExpect(filler.path(), search.path());
+        t.checkExpect(filler.filled, 10500 - search.path().length);
+      }
+    }
+    pool.shutdown();
+    DeadEndFiller small = new DeadEndFiller(testerWorld.maze, 0, 8, null);
+    t.checkExpect(small.run(), true);
+    t.checkExpect(small.path(), new int[] { 0, 1, 4, 7, 8 });
+    t.checkExpect(small.filled, 4);
+    t.checkExpect(small.isOpen(4), true);
+    t.checkExpect(small.isOpen(2), false);
+    t.checkExpect(small.passable(0, MazeGrid.RIGHT), !testerWorld.maze.hasWall(0,
+        MazeGrid.RIGHT));
+    t.checkExpect(small.passable(0, MazeGrid.TOP), false);
+    DeadEndFiller same = new DeadEndFiller(testerWorld.maze, 4, 4, null);
+    t.checkExpect(same.run(), true);
+    t.checkExpect(same.path(), new int[] { 4 });
+    t.checkExpect(MazeSearch.kindOf("fill"), MazeSearch.DEAD_END_FILL);
+    t.checkExpect(MazeSearch.nameOf(MazeSearch.DEAD_END_FILL), "fill");
+    MazeEngine engine = new MazeEngine(30, 20, false, false);
+    MazeRun fill = engine.run(9, MazeSearch.DEAD_END_FILL);
+    t.checkExpect(fill.found, true);
+    t.checkExpect(fill.pathCells, engine.run(9, MazeSearch.BREADTH_FIRST).pathCells);
+    t.checkExpect(fill.expanded, 600 - fill.pathCells);
+    t.checkExpect(fill.toCsv().startsWith("9,30,20,fill,true,"), true);
+    testerWorld.grid.closeAll();
+    DeadEndFiller closed = new DeadEndFiller(testerWorld.maze, 0, 8, null);
+    t.checkExpect(closed.run(), false);
+    t.checkExpect(closed.path(), new int[0]);
+  }
+
+  // test for MazeAnalytics
+  void testMazeAnalytics(Tester t) {
+    initData();
+    MazeAnalytics small = MazeAnalytics.of(testerWorld.maze);
+    t.checkExpect(small.cells(), 9L);
+    t.checkExpect(small.degrees, new long[] { 0, 5, 2, 1, 1 });
+    t.checkExpect(small.deadEnds(), 5L);
+    t.checkExpect(small.junctions(), 2L);
+    t.checkExpect(small.solutionCells(), 5L);
+    t.checkExpect(small.difficulty(), 4.0 / 9);
+    t.checkExpect(small.corridors.count(), 6L);
+    t.checkExpect(small.corridors.max(), 2L);
+    t.checkExpect(small.corridors.mean() * small.corridors.count(), 8.0);
+    int[] neighbors = new int[4];
+    for (String name : MazeGenerator.NAMES) {
+      MazeGrid grid = new MazeEngine(45, 31, false, false, name).generate(6);
+      long deadEnds = 0;
+      long nodes = 0;
+      for (int cell = 0; cell < grid.cells(); cell = cell + 1) {
+        int open = grid.openNeighbors(cell, neighbors);
+        if (open == 1) {
+          deadEnds = deadEnds + 1;
+        }
+        if (open != 2) {
+          nodes = nodes + 1;
+        }
+      }
+      MazeAnalytics analytics = new MazeAnalytics(45, 31, 700, 12);
+      try {
+        grid.emitRows(analytics);
+      }
+      catch (IOException e) {
+        t.checkExpect(e, null);
+      }
+      MazeSearch search = MazeSearch.of(MazeSearch.BREADTH_FIRST, grid, 700, 12);
+      search.run();
+      t.checkExpect(analytics.deadEnds(), deadEnds);
+      t.checkExpect(analytics.solutionCells(), (long) search.path().length);
+      // every step of the maze is in one corridor, and corridors join the other cells up
+      t.checkExpect(analytics.corridors.count(), nodes - 1);
+      t.checkExpect(analytics.corridors.mean() * analytics.corridors.count(), 1394.0);
+    }
+    // analyzing rows as they're generated gives what analyzing the file they went to does
+    try {
+      Path path = Files.createTempFile("maze", ".bin");
+      MazeAnalytics streamed = new MazeAnalytics(57, 21);
+      t.checkExpect(streamed.solutionCells(), 0L);
+      MazeFile.generate(path, 57, 21, 3, MazeFile.VERTICAL_BIAS, streamed);
+      MazeAnalytics loaded = MazeAnalytics.of(MazeFile.open(path));
+      Files.delete(path);
+      t.checkExpect(streamed.degrees, loaded.degrees);
+      t.checkExpect(streamed.corridors.count(), loaded.corridors.count());
+      t.checkExpect(streamed.solutionCells() > 0, true);
+      t.checkExpect(streamed.solutionCells(), loaded.solutionCells());
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    testerWorld.grid.closeAll();
+    MazeAnalytics closed = MazeAnalytics.of(testerWorld.maze);
+    t.checkExpect(closed.degrees, new long[] { 9, 0, 0, 0, 0 });
+    t.checkExpect(closed.solutionCells(), 0L);
+    t.checkExpect(closed.difficulty(), 1.0);
+    t.checkExpect(new MazeAnalytics(1, 1).solutionCells(), 0L);
+    t.checkExpect(MazeAnalytics.of(new MazeGrid(1, 1)).solutionCells(), 1L);
+    // cell numbers past what an int holds: the small maze's rows are fed as the first and
+    // last two of a maze 2^30 rows high, as if the rows between were a straight passage
+    initData();
+    int height = 1 << 30;
+    MazeAnalytics tall = new MazeAnalytics(3, height);
+    t.checkExpect(tall.goal, 3L * height - 1);
+    try {
+      testerWorld.grid.emitRows((row, walls) -> {
+        int at = row == 0 ? 0 : height - 3 + row;
+        tall.rows = at;
+        tall.acceptRow(at, walls);
+      });
+    }
+    catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(tall.rows, height);
+    t.checkExpect(tall.nodeCell[tall.goalNode], 3L * height - 1);
+    t.checkExpect(tall.nodeCell[tall.startNode], 0L);
+    t.checkExpect(tall.degrees, small.degrees);
+    t.checkExpect(tall.solutionCells(), 5L);
+    t.checkExpect(tall.corridors.count(), 6L);
+    t.checkExpect(tall.corridors.max(), 2L);
+  }
+
+  // determines if the two given worlds show the same maze with the same cells coloured
+  boolean sameBoard(MazeWorld a, MazeWorld b) {
+    boolean same = Arrays.equals(a.grid.walls, b.grid.walls);
+    for (int row = 0; row < a.height; row = row + 1) {
+      for (int col = 0; col < a.length; col = col + 1) {
+        same = same && a.board.get(col, row).color.equals(b.board.get(col, row).color);
+      }
+    }
+    return same;
+  }
+
+  // test for InputLog
+  void testInputLog(Tester t) {
+    InputLog log = new InputLog(4, 3, -9);
+    t.checkExpect(log.bytes().length, InputLog.HEADER_BYTES);
+    log.key("right");
+    // the key right away is one byte, its code
+    t.checkExpect(log.bytes().length, InputLog.HEADER_BYTES + 1);
+    log.tick();
+    log.tick();
+    log.key("down");
+    t.checkExpect(log.bytes()[InputLog.HEADER_BYTES + 1], (byte) ((2 << 4) | 1));
+    log.key("x");
+    t.checkExpect(log.events, 2L);
+    log.key("g");
+    log.click(200, 1);
+    // g is code OTHER and an index, the click code CLICK, two bytes of column and one of row
+    t.checkExpect(log.size, InputLog.HEADER_BYTES + 8);
+    for (int i = 0; i < 1000; i = i + 1) {
+      log.tick();
+    }
+    // the ticks at the end are kept by the log until they are written out
+    t.checkExpect(log.size, InputLog.HEADER_BYTES + 8);
+    t.checkExpect(log.bytes().length, InputLog.HEADER_BYTES + 11);
+    try {
+      InputLog copy = InputLog.read(log.bytes());
+      t.checkExpect(copy.length, 4);
+      t.checkExpect(copy.height, 3);
+      t.checkExpect(copy.seed, -9L);
+      t.checkExpect(copy.bytes(), log.bytes());
+      InputLog.read(new byte[] { 1, 2, 3 });
+      t.checkExpect(false, true);
+    }
+    catch (IOException e) {
+      t.checkExpect(e.getMessage(), "not an input log");
+    }
+    t.checkExpect(InputLog.codeOf("up"), 0);
+    t.checkExpect(InputLog.codeOf("backspace"), 13);
+    t.checkExpect(InputLog.codeOf("h"), -1);
+    t.checkExpect(InputLog.otherOf("f"), 4);
+    t.checkExpect(InputLog.otherOf(""), -1);
+  }
+
+  // test for InputReplay
+  void testInputReplay(Tester t) {
+    String[] keys = new String[] { "up", "down", "left", "right", "b", "d", "a", "m", "p",
+        "escape", "enter", "n", "r", "backspace", "h", "v", "g", "f", "q" };
+    Random rand = new Random(24);
+    for (int session = 0; session < 20; session = session + 1) {
+      MazeWorld world = InputLog.recordedWorld(12, 9, session);
+      MazeWorld halfway = null;
+      long ticks = 0;
+      long halfwayTick = 0;
+      for (int event = 0; event < 400; event = event + 1) {
+        int kind = rand.nextInt(10);
+        if (kind < 3) {
+          world.onKeyEvent(keys[rand.nextInt(4)]);
+        }
+        else if (kind < 5) {
+          world.onKeyEvent(keys[rand.nextInt(keys.length)]);
+        }
+        else if (kind < 6) {
+          world.onMouseClicked(new Posn(rand.nextInt(200) - 40, rand.nextInt(150) - 40));
+        }
+        else {
+          for (int i = rand.nextInt(30); i > 0; i = i - 1) {
+            world.onTick();
+            ticks = ticks + 1;
+          }
+        }
+        if (event == 199) {
+          InputReplay replay = new InputReplay(world.recording);
+          replay.run();
+          t.checkExpect(replay.tick, ticks);
+          halfway = replay.world;
+          halfwayTick = ticks;
+          // so nothing after this happens before the tick fast forwarding stops at
+          world.onTick();
+          ticks = ticks + 1;
+        }
+      }
+      InputReplay replay = new InputReplay(world.recording);
+      replay.run();
+      t.checkExpect(replay.tick, ticks);
+      t.checkExpect(replay.events, world.recording.events);
+      t.checkExpect(replay.world.completed, world.completed);
+      t.checkExpect(replay.world.curX, world.curX);
+      t.checkExpect(replay.world.curY, world.curY);
+      t.checkExpect(replay.world.tick, world.tick);
+      t.checkExpect(this.sameBoard(replay.world, world), true);
+      InputReplay partial = new InputReplay(world.recording);
+      t.checkExpect(partial.fastForward(halfwayTick), halfwayTick);
+      t.checkExpect(partial.world.curX, halfway.curX);
+      t.checkExpect(partial.world.curY, halfway.curY);
+      t.checkExpect(this.sameBoard(partial.world, halfway), true);
+      t.checkExpect(partial.fastForward(ticks), ticks);
+      t.checkExpect(this.sameBoard(partial.world, world), true);
+    }
+    // an idle stretch is skipped, not played
+    MazeWorld idle = InputLog.recordedWorld(5, 5, 3);
+    idle.onKeyEvent("b");
+    for (int i = 0; i < 100; i = i + 1) {
+      idle.onTick();
+    }
+    t.checkExpect(idle.ticking(), false);
+    InputLog log = idle.recording;
+    log.ticks = log.ticks + (1L << 40);
+    InputReplay skipped = new InputReplay(log);
+    skipped.run();
+    t.checkExpect(skipped.tick, (1L << 40) + 100);
+    t.checkExpect(this.sameBoard(skipped.world, idle), true);
+  }
+
+  // test for AnimationScheduler
+  void testAnimationScheduler(Tester t) {
+    // any maze bigger than a few hundred cells is animated in the same number of ticks
+    for (int size : new int[] { 40, 200 }) {
+      MazeWorld world = new MazeWorld(size, size, new Random(5));
+      world.onKeyEvent("b");
+      int ticks = 0;
+      while (world.ticking()) {
+        world.onTick();
+        ticks = ticks + 1;
+      }
+      t.checkExpect(ticks, 500);
+      t.checkExpect(world.tick, world.search.trace.size());
+      t.checkExpect(world.cellsLeft(), 0L);
+    }
+    // a small one still gets a cell a tick
+    initData();
+    testerWorld.onKeyEvent("b");
+    testerWorld.onTick();
+    t.checkExpect(testerWorld.tick, 1);
+    t.checkExpect(testerWorld.cellsLeft(), (long) testerWorld.search.trace.size() - 1);
+    AnimationScheduler scheduler = new AnimationScheduler(false, .01, 1);
+    t.checkExpect(scheduler.ticks, 100L);
+    scheduler.tick();
+    t.checkExpect(scheduler.cellsFor(1000), 10);
+    t.checkExpect(scheduler.cellsFor(5), 1);
+    t.checkExpect(scheduler.cellsFor(0), 1);
+    for (int i = 0; i < 200; i = i + 1) {
+      scheduler.tick();
+    }
+    // past its time the animation finishes on the next tick
+    t.checkExpect(scheduler.cellsFor(1000), 1000);
+    t.checkExpect(scheduler.withinBudget(AnimationScheduler.CHECK_EVERY), true);
+    // a real-time scheduler counts the ticks missed since the last one and catches up
+    AnimationScheduler realTime = new AnimationScheduler(true, .01, 1);
+    realTime.tick();
+    realTime.lastTick = realTime.tickStart - 5 * realTime.tickNanos;
+    realTime.tick();
+    t.checkExpect(realTime.dropped >= 4, true);
+    t.checkExpect(realTime.frames, realTime.dropped + 2);
+    t.checkExpect(realTime.cellsFor(1000) > 10, true);
+    realTime.idle();
+    realTime.tick();
+    t.checkExpect(realTime.frames, realTime.dropped + 3);
+    // and stops a batch once it runs over its budget
+    realTime.tickStart = System.nanoTime() - realTime.budgetNanos - 1;
+    t.checkExpect(realTime.withinBudget(AnimationScheduler.CHECK_EVERY - 1), true);
+    t.checkExpect(realTime.withinBudget(AnimationScheduler.CHECK_EVERY), false);
+    realTime.start();
+    t.checkExpect(realTime.frames, 0L);
+    t.checkExpect(realTime.dropped, 0L);
+  }
+
+  // test for MazeEngine and MazeRun
+  void testMazeEngine(Tester t) {
+    initData();
+    MazeEngine engine = new MazeEngine(3, 3, false, false);
+    t.checkExpect(engine.generate(0).walls, testerWorld.grid.walls);
+    MazeRun run = engine.run(0, MazeSearch.A_STAR);
+    t.checkExpect(run.found, true);
+    t.checkExpect(run.pathCells, 5);
+    t.checkExpect(run.expanded <= 9, true);
+    t.checkExpect(run.toCsv().startsWith("0,3,3,astar,true,5,"), true);
+    MazeWorld fresh = new MazeWorld(6, 4, new Random(2));
+    t.checkExpect(new MazeEngine(6, 4, false, false).generate(2).walls, fresh.grid.walls);
+    t.checkExpect(MazeSearch.kindOf("bidirectional"), MazeSearch.BIDIRECTIONAL);
+    t.checkExpect(MazeSearch.nameOf(MazeSearch.DEPTH_FIRST), "dfs");
+  }
+
+  // test for MazeBatch
+  void testMazeBatch(Tester t) {
+    MazeEngine engine = new MazeEngine(20, 10, false, true);
+    ForkJoinPool pool = new ForkJoinPool(3);
+    MazeRun[] runs = MazeBatch.runAll(engine, 100, 11, MazeSearch.BREADTH_FIRST, pool);
+    pool.shutdown();
+    t.checkExpect(runs.length, 11);
+    for (int i = 0; i < runs.length; i = i + 1) {
+      t.checkExpect(runs[i].seed, 100L + i);
+      t.checkExpect(runs[i].found, true);
+      t.checkExpect(runs[i].pathCells, engine.run(100 + i, MazeSearch.A_STAR).pathCells);
+    }
+  }
+
+  // test for MazeBenchmark
+  void testMazeBenchmark(Tester t) {
+    MazeBenchmark.WARMUP_ROUNDS = 1;
+    MazeBenchmark.ROUNDS = 1;
+    MazeBenchmark.ROUND_NANOS = 1_000_000L;
+    ArrayList<BenchmarkResult> results = MazeBenchmark.run(12, 8);
+    t.checkExpect(results.size(), 12);
+    t.checkExpect(results.get(0).name, "addEdges");
+    t.checkExpect(results.get(2).name, "boruvka");
+    t.checkExpect(results.get(3).name, "reset");
+    t.checkExpect(results.get(7).name, "breadthFirst/p");
+    t.checkExpect(results.get(9).name, "deadEndFill");
+    t.checkExpect(results.get(10).name, "makeScene");
+    for (BenchmarkResult r : results) {
+      t.checkExpect(r.operations > 0, true);
+      t.checkExpect(r.nanosPerOp > 0, true);
+      t.checkExpect(r.length * r.height, 96);
+    }
+    BenchmarkResult half = new BenchmarkResult("x", 10, 10, 4, 500, 64);
+    t.checkExpect(half.throughput(), 2e6);
+    t.checkExpect(half.nanosPerCell(), 5.0);
+    t.checkExpect(half.allocationRate(), 128e6);
+    MazeBenchmark.WARMUP_ROUNDS = 3;
+    MazeBenchmark.ROUNDS = 5;
+    MazeBenchmark.ROUND_NANOS = 100_000_000L;
+    // what fork-join workers allocate is counted too
+    ForkJoinPool pool = new ForkJoinPool(1);
+    try {
+      pool.submit(() -> new long[1]).get();
+      long[][] before = MazeBenchmark.allocations();
+      long[] made = pool.submit(() -> new long[1 << 20]).get();
+      t.checkExpect(MazeBenchmark.allocatedSince(before) >= 8L * made.length, true);
+    }
+    catch (InterruptedException | ExecutionException e) {
+      t.checkExpect(e, null);
+    }
+    pool.shutdown();
+    t.checkExpect(MazeBenchmark.countingBytes() >= 0, true);
+    t.checkExpect(MazeBenchmark.allocatedSince(null), 0L);
+  }
+
+  // test for VisitTrace
+  void testVisitTrace(Tester t) {
+    VisitTrace trace = new VisitTrace(4);
+    t.checkExpect(trace.isEmpty(), true);
+    trace.add(3);
+    trace.add(1);
+    t.checkExpect(trace.size(), 2);
+    t.checkExpect(trace.get(0), 3);
+    t.checkExpect(trace.get(1), 1);
+    t.checkExpect(trace.contains(1), true);
+    t.checkExpect(trace.contains(2), false);
+  }
+
+  // test for step, pause, resume and cancel
+  void testGridSearchStep(Tester t) {
+    initData();
+    GridSearch bfs = new GridSearch(testerWorld.grid, true, 0, 8);
+    t.checkExpect(bfs.step(3), false);
+    t.checkExpect(bfs.trace.size(), 3);
+    bfs.pause();
+    t.checkExpect(bfs.step(3), false);
+    t.checkExpect(bfs.trace.size(), 3);
+    bfs.resume();
+    t.checkExpect(bfs.step(3), false);
+    t.checkExpect(bfs.trace.size(), 6);
+    t.checkExpect(bfs.step(100), true);
+    t.checkExpect(bfs.found, true);
+    t.checkExpect(bfs.trace.size(), 9);
+    GridSearch dfs = new GridSearch(testerWorld.grid, false, 0, 8);
+    dfs.step(1);
+    dfs.cancel();
+    t.checkExpect(dfs.step(100), true);
+    t.checkExpect(dfs.found, false);
+    t.checkExpect(dfs.trace.size(), 1);
+  }
+
+  // test for AStarSearch
+  void testAStarSearch(Tester t) {
+    initData();
+    AStarSearch search = new AStarSearch(testerWorld.grid, 0, 8);
+    t.checkExpect(search.estimate(0), 4);
+    t.checkExpect(search.estimate(5), 1);
+    t.checkExpect(search.run(), true);
+    t.checkExpect(search.path(), new int[] { 0, 1, 4, 7, 8 });
+    t.checkExpect(search.expanded <= 9, true);
+    // A* never expands more cells than breadth-first search on a bigger maze
+    MazeWorld big = new MazeWorld(40, 30, new Random(3));
+    AStarSearch aStar = new AStarSearch(big.grid, 0, big.grid.cells() - 1);
+    GridSearch bfs = new GridSearch(big.grid, true, 0, big.grid.cells() - 1);
+    t.checkExpect(aStar.run(), true);
+    t.checkExpect(bfs.run(), true);
+    t.checkExpect(aStar.path(), bfs.path());
+    t.checkExpect(aStar.expanded <= bfs.expanded, true);
+    t.checkExpect(new AStarSearch(new MazeGrid(2, 2), 0, 3).run(), false);
+  }
+
+  // test for BidirectionalSearch
+  void testBidirectionalSearch(Tester t) {
+    initData();
+    BidirectionalSearch search = new BidirectionalSearch(testerWorld.grid, 0, 8);
+    t.checkExpect(search.run(), true);
+    t.checkExpect(search.path(), new int[] { 0, 1, 4, 7, 8 });
+    t.checkExpect(search.trace.contains(8), true);
+    MazeWorld big = new MazeWorld(40, 30, new Random(3));
+    BidirectionalSearch both = new BidirectionalSearch(big.grid, 0, big.grid.cells() - 1);
+    GridSearch bfs = new GridSearch(big.grid, true, 0, big.grid.cells() - 1);
+    t.checkExpect(both.run(), true);
+    t.checkExpect(bfs.run(), true);
+    t.checkExpect(both.path(), bfs.path());
+    t.checkExpect(both.expanded == both.trace.size(), true);
+    t.checkExpect(new BidirectionalSearch(testerWorld.grid, 4, 4).path(), new int[0]);
+    t.checkExpect(new BidirectionalSearch(testerWorld.grid, 4, 4).run(), true);
+    t.checkExpect(new BidirectionalSearch(new MazeGrid(2, 2), 0, 3).run(), false);
+  }
+
+  // test for GridSearch
+  void testGridSearch(Tester t) {
+    initData();
+    GridSearch bfs = new GridSearch(testerWorld.grid, true, 0, 8);
+    t.checkExpect(bfs.run(), true);
+    t.checkExpect(bfs.trace.size(), 9);
+    t.checkExpect(bfs.trace.get(0), 0);
+    t.checkExpect(bfs.trace.get(1), 1);
+    t.checkExpect(bfs.trace.get(8), 8);
+    t.checkExpect(bfs.cameFrom[8], 7);
+    t.checkExpect(bfs.cameFrom[7], 4);
+    t.checkExpect(bfs.cameFrom[4], 1);
+    t.checkExpect(bfs.cameFrom[1], 0);
+    GridSearch dfs = new GridSearch(testerWorld.grid, false, 0, 8);
+    t.checkExpect(dfs.run(), true);
+    t.checkExpect(dfs.trace.size(), 5);
+    t.checkExpect(dfs.trace.get(2), 4);
+    t.checkExpect(bfs.path(), new int[] { 0, 1, 4, 7, 8 });
+    t.checkExpect(bfs.expanded, 9);
+    // searching back toward the start
+    GridSearch back = new GridSearch(testerWorld.grid, true, 8, 0);
+    t.checkExpect(back.run(), true);
+    t.checkExpect(back.cameFrom[1], 4);
+    // a grid with every wall up has no way through
+    t.checkExpect(new GridSearch(new MazeGrid(2, 2), true, 0, 3).run(), false);
+  }
+
+  // test for MazeGrid
+  void testMazeGrid(Tester t) {
+    MazeGrid grid = new MazeGrid(3, 2);
+    t.checkExpect(grid.cells(), 6);
+    t.checkExpect(grid.id(2, 1), 5);
+    t.checkExpect(grid.hasWall(4, MazeGrid.RIGHT), true);
+    t.checkExpect(MazeGrid.isHorizontal(2 * 4), true);
+    t.checkExpect(grid.to(2 * 4), 5);
+    t.checkExpect(grid.to(2 * 1 + 1), 4);
+    grid.open(2 * 4);
+    grid.open(2 * 1 + 1);
+    t.checkExpect(grid.hasWall(4, MazeGrid.RIGHT), false);
+    t.checkExpect(grid.hasWall(5, MazeGrid.LEFT), false);
+    t.checkExpect(grid.hasWall(1, MazeGrid.BOTTOM), false);
+    t.checkExpect(grid.hasWall(4, MazeGrid.TOP), false);
+    t.checkExpect(grid.hasWall(4, MazeGrid.LEFT), true);
+    int[] into = new int[4];
+    t.checkExpect(grid.openNeighbors(4, into), 2);
+    t.checkExpect(into[0], 1);
+    t.checkExpect(into[1], 5);
+    grid.closeAll();
+    t.checkExpect(grid.openNeighbors(4, into), 0);
+  }
 
+  // test for UnionFind
+  void testUnionFind(Tester t) {
+    UnionFind sets = new UnionFind(300);
+    t.checkExpect(sets.find(0), 0);
+    t.checkExpect(sets.find(299), 299);
+    t.checkExpect(sets.union(0, 1), true);
+    t.checkExpect(sets.union(1, 0), false);
+    t.checkExpect(sets.find(0) == sets.find(1), true);
+    // representatives past 127 still compare correctly
+    t.checkExpect(sets.union(200, 250), true);
+    t.checkExpect(sets.find(200) == sets.find(250), true);
+    t.checkExpect(sets.find(200) == sets.find(0), false);
+    t.checkExpect(sets.union(250, 1), true);
+    t.checkExpect(sets.find(0) == sets.find(200), true);
+    t.checkExpect(sets.union(0, 200), false);
   }
 
   // test for breadthFirst method
@@ -768,15 +7787,15 @@ class ExamplesMaze {
     t.checkExpect(testerWorld.breadthFirst(), true);
     testerWorld.onKeyEvent("b");
     t.checkExpect(testerWorld.breadthFirst, true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(0).get(0)), true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(0).get(1)), true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(0).get(2)), true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(1).get(0)), true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(1).get(1)), true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(1).get(2)), true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(2).get(0)), true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(2).get(1)), true);
-    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(2).get(2)), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(0, 0).id()), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(1, 0).id()), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(2, 0).id()), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(0, 1).id()), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(1, 1).id()), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(2, 1).id()), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(0, 2).id()), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(1, 2).id()), true);
+    t.checkExpect(testerWorld.visitedBFS.contains(testerWorld.board.get(2, 2).id()), true);
   }
 
   // test for depthFirst method
@@ -787,15 +7806,15 @@ class ExamplesMaze {
     t.checkExpect(testerWorld.depthFirst(), true);
     testerWorld.onKeyEvent("d");
     t.checkExpect(testerWorld.depthFirst, true);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(0).get(0)), true);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(0).get(1)), true);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(0).get(2)), false);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(1).get(0)), false);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(1).get(1)), true);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(1).get(2)), false);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(2).get(0)), false);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(2).get(1)), true);
-    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(2).get(2)), true);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(0, 0).id()), true);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(1, 0).id()), true);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(2, 0).id()), false);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(0, 1).id()), false);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(1, 1).id()), true);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(2, 1).id()), false);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(0, 2).id()), false);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(1, 2).id()), true);
+    t.checkExpect(testerWorld.visitedDFS.contains(testerWorld.board.get(2, 2).id()), true);
   }
 
   // test for onKeyEvent method
@@ -826,10 +7845,27 @@ class ExamplesMaze {
     testerWorld.onKeyEvent("d");
     testerWorld.doneDFS = true;
     testerWorld.onKeyEvent("enter");
-    t.checkExpect(testerWorld.board.get(0).get(1).color, Color.blue);
-    t.checkExpect(testerWorld.board.get(1).get(1).color, Color.blue);
-    t.checkExpect(testerWorld.board.get(2).get(1).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(1, 0).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(1, 1).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(1, 2).color, Color.blue);
     t.checkExpect(testerWorld.doneBackTracking, true);
+    initData();
+    testerWorld.onKeyEvent("a");
+    t.checkExpect(testerWorld.aStar, true);
+    t.checkExpect(testerWorld.breadthFirst, false);
+    testerWorld.onTick();
+    t.checkExpect(testerWorld.doneAStar, true);
+    testerWorld.onKeyEvent("enter");
+    t.checkExpect(testerWorld.board.get(1, 1).color, Color.blue);
+    t.checkExpect(testerWorld.board.get(0, 1).color, Color.white);
+    initData();
+    testerWorld.onKeyEvent("m");
+    t.checkExpect(testerWorld.bidirectional, true);
+    testerWorld.onTick();
+    t.checkExpect(testerWorld.doneBidirectional, true);
+    t.checkExpect(testerWorld.search.kind(), MazeSearch.BIDIRECTIONAL);
+    testerWorld.onKeyEvent("enter");
+    t.checkExpect(testerWorld.board.get(1, 2).color, Color.blue);
   }
 
   // test for onTick method
@@ -841,6 +7877,35 @@ class ExamplesMaze {
     testerWorld.onTick();
     t.checkExpect(testerWorld.visitedBFS.isEmpty(), false);
     t.checkExpect(testerWorld.end, true);
+    t.checkExpect(testerWorld.board.get(0, 0).color, Color.cyan);
+    // the search only expands a few cells each tick
+    initData();
+    MazeWorld.STEPS_PER_TICK = 2;
+    testerWorld.onKeyEvent("d");
+    testerWorld.onTick();
+    t.checkExpect(testerWorld.visitedDFS.size(), 2);
+    t.checkExpect(testerWorld.end, false);
+    testerWorld.onKeyEvent("p");
+    testerWorld.onTick();
+    t.checkExpect(testerWorld.visitedDFS.size(), 2);
+    t.checkExpect(testerWorld.tick, 1);
+    testerWorld.onKeyEvent("p");
+    testerWorld.onTick();
+    testerWorld.onTick();
+    t.checkExpect(testerWorld.end, true);
+    t.checkExpect(testerWorld.doneDFS, true);
+    // the solution comes from the finished search
+    MazeSearch finished = testerWorld.search;
+    testerWorld.onKeyEvent("enter");
+    t.checkExpect(testerWorld.search, finished);
+    t.checkExpect(testerWorld.board.get(1, 1).color, Color.blue);
+    initData();
+    testerWorld.onKeyEvent("b");
+    testerWorld.onTick();
+    testerWorld.onKeyEvent("escape");
+    t.checkExpect(testerWorld.search.cancelled, true);
+    t.checkExpect(testerWorld.searching, false);
+    MazeWorld.STEPS_PER_TICK = 4096;
   }
 
   // test for reset method
@@ -867,7 +7932,7 @@ class ExamplesMaze {
     t.checkExpect(testerWorld.breadthFirst, false);
     t.checkExpect(testerWorld.depthFirst, false);
     t.checkExpect(testerWorld.searching, false);
-    t.checkExpect(testerWorld.board.get(0).get(0).color, Color.white);
-    t.checkExpect(testerWorld.board.get(1).get(0).color, Color.white);
+    t.checkExpect(testerWorld.board.get(0, 0).color, Color.white);
+    t.checkExpect(testerWorld.board.get(0, 1).color, Color.white);
   }
 }
\ No newline at end of file